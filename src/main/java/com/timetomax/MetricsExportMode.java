@@ -0,0 +1,21 @@
+package com.timetomax;
+
+public enum MetricsExportMode
+{
+	OFF("Off"),
+	FILE("File"),
+	HTTP("Loopback HTTP");
+
+	private final String name;
+
+	MetricsExportMode(String name)
+	{
+		this.name = name;
+	}
+
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+}
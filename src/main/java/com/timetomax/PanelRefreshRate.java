@@ -0,0 +1,32 @@
+package com.timetomax;
+
+public enum PanelRefreshRate
+{
+	ON_CHANGE("On change only", 0),
+	ONE_SECOND("1 second", 1),
+	FIVE_SECONDS("5 seconds", 5),
+	FIFTEEN_SECONDS("15 seconds", 15);
+
+	private final String name;
+	private final int seconds;
+
+	PanelRefreshRate(String name, int seconds)
+	{
+		this.name = name;
+		this.seconds = seconds;
+	}
+
+	/**
+	 * @return the number of seconds between timed refreshes, or 0 when the panel only refreshes on xp changes
+	 */
+	int getSeconds()
+	{
+		return seconds;
+	}
+
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+}
@@ -29,6 +29,7 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
 import net.runelite.client.config.Units;
 
 import java.time.LocalDate;
@@ -57,6 +58,14 @@ public interface TimeToMaxConfig extends Config
 	)
 	String overlaySection = "overlay";
 
+	@ConfigSection(
+		name = "Metrics Export",
+		description = "Export of progress and plugin performance metrics in the Prometheus text format.",
+		position = 3,
+		closedByDefault = true
+	)
+	String metricsSection = "metrics";
+
 	@ConfigItem(
 		section = maxingSection,
 		position = 0,
@@ -179,6 +188,31 @@ public interface TimeToMaxConfig extends Config
 		return true;
 	}
 
+	@ConfigItem(
+		section = maxingSection,
+		position = 9,
+		keyName = "cachedAccounts",
+		name = "Cached accounts",
+		description = "How many other accounts and world types keep their xp state in memory for instant switching. Older ones are saved and unloaded."
+	)
+	@Range(max = 20)
+	default int cachedAccounts()
+	{
+		return 4;
+	}
+
+	@ConfigItem(
+		section = maxingSection,
+		position = 10,
+		keyName = "carryOverGoals",
+		name = "Carry over surplus/deficit",
+		description = "Adds xp missing from the last interval's goal to the next goal, and takes xp above it off, instead of spreading it over all remaining intervals."
+	)
+	default boolean carryOverGoals()
+	{
+		return false;
+	}
+
 	@ConfigItem(
 		section = infoLabelSection,
 		position = 0,
@@ -290,6 +324,57 @@ public interface TimeToMaxConfig extends Config
 		return XpProgressBarLabel.TIME_TO_LEVEL;
 	}
 
+	@ConfigItem(
+		section = infoLabelSection,
+		position = 9,
+		keyName = "panelRefreshRate",
+		name = "Panel refresh rate",
+		description = "Configures how often rate based labels such as XP/hr and TTL are refreshed. XP drops always update the panel immediately."
+	)
+	default PanelRefreshRate panelRefreshRate()
+	{
+		return PanelRefreshRate.ONE_SECOND;
+	}
+
+	@ConfigItem(
+		section = infoLabelSection,
+		position = 10,
+		keyName = "plainStatLabels",
+		name = "Plain text stat labels",
+		description = "Draws the XP info box labels as plain text instead of html, which is cheaper to refresh."
+	)
+	default boolean plainStatLabels()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		section = infoLabelSection,
+		position = 11,
+		keyName = "trainNextSkills",
+		name = "Train next skills",
+		description = "How many of the skills furthest behind their interval goal to list in the panel, 0 hides the list."
+	)
+	@Range(max = 5)
+	default int trainNextSkills()
+	{
+		return 3;
+	}
+
+	@ConfigItem(
+		section = infoLabelSection,
+		position = 12,
+		keyName = "sessionGap",
+		name = "Session gap",
+		description = "Configures how many minutes without XP end a session. Logging out always ends a session."
+	)
+	@Units(Units.MINUTES)
+	@Range(min = 1)
+	default int sessionGap()
+	{
+		return 15;
+	}
+
 	@ConfigItem(
 		position = 0,
 		keyName = "skillTabOverlayMenuOptions",
@@ -325,4 +410,67 @@ public interface TimeToMaxConfig extends Config
 	{
 		return XpPanelLabel.XP_HOUR;
 	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "trainNextOverlay",
+		name = "Train next overlay",
+		description = "Shows the skills furthest behind their interval goal on the game canvas.",
+		section = overlaySection
+	)
+	default boolean trainNextOverlay()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 0,
+		keyName = "metricsExport",
+		name = "Export metrics",
+		description = "Writes metrics to a .prom file periodically, or serves them at http://127.0.0.1:<port>/metrics. Exporting also enables the perf metrics recording.",
+		section = metricsSection
+	)
+	default MetricsExportMode metricsExport()
+	{
+		return MetricsExportMode.OFF;
+	}
+
+	@ConfigItem(
+		position = 1,
+		keyName = "metricsExportFile",
+		name = "Export file",
+		description = "Path of the .prom file, defaults to timetomax.prom in the RuneLite directory.",
+		section = metricsSection
+	)
+	default String metricsExportFile()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		position = 2,
+		keyName = "metricsExportInterval",
+		name = "File write interval",
+		description = "How often the .prom file is rewritten.",
+		section = metricsSection
+	)
+	@Range(min = 1, max = 300)
+	@Units(Units.SECONDS)
+	default int metricsExportInterval()
+	{
+		return 15;
+	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "metricsExportPort",
+		name = "HTTP port",
+		description = "Loopback port serving the metrics.",
+		section = metricsSection
+	)
+	@Range(min = 1024, max = 65535)
+	default int metricsExportPort()
+	{
+		return 9477;
+	}
 }
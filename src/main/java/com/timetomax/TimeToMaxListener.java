@@ -0,0 +1,22 @@
+package com.timetomax;
+
+import net.runelite.api.Skill;
+
+/**
+ * Receives progress pushed by the Time to Max plugin, register with {@link TimeToMaxService#addListener}.
+ * Callbacks run on the client thread and should return quickly.
+ */
+public interface TimeToMaxListener
+{
+	/**
+	 * Called when the tracked state of a skill changed, eg. after an xp drop or a new interval goal
+	 */
+	void onProgress(XpProgress progress);
+
+	/**
+	 * Called once when a skill reaches its goal for the current interval
+	 */
+	default void onIntervalGoalCompleted(Skill skill, TrackingInterval interval)
+	{
+	}
+}
@@ -37,7 +37,19 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.IsoFields;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.inject.Inject;
@@ -86,6 +98,21 @@ public class TimeToMaxPlugin extends Plugin
 {
 	private static final String MENUOP_ADD_CANVAS_TRACKER = "Add to canvas";
 	private static final String MENUOP_REMOVE_CANVAS_TRACKER = "Remove from canvas";
+	private static final Map<String, Skill> SKILLS_BY_NAME = new HashMap<>();
+	// How often the incrementally tracked overall xp is checked against the client
+	private static final int OVERALL_SYNC_SECONDS = 60;
+	// Most seconds between publishing decayed rates to service listeners, when the panel refreshes less often
+	private static final int RATE_PUBLISH_SECONDS = 5;
+	// Config changes arriving within this window, eg. from dragging a spinner, are applied as one recalculation
+	private static final long CONFIG_RECALCULATION_DELAY_MS = 250;
+
+	static
+	{
+		for (Skill skill : Skill.values())
+		{
+			SKILLS_BY_NAME.put(skill.getName(), skill);
+		}
+	}
 
 	@Inject
 	private ClientToolbar clientToolbar;
@@ -111,6 +138,35 @@ public class TimeToMaxPlugin extends Plugin
 	@Inject
 	private ConfigManager configManager;
 
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Inject
+	private XpProgressPublisher progressPublisher;
+
+	@Inject
+	private XpMetricsExporter metricsExporter;
+
+	@Inject
+	private XpForecaster forecaster;
+
+	@Inject
+	private XpRecommendationOverlay recommendationOverlay;
+
+	private static final int MAX_RECOMMENDATIONS = 5;
+	private final XpRecommender recommender = new XpRecommender();
+	// Latest top of the recommender, replaced as a whole so the overlay can read it while rendering
+	private List<XpRecommendation> recommendations = Collections.emptyList();
+	private boolean recommendationsDirty;
+	// Last session shown in the panel, compared by identity to push only new sessions
+	private XpSession shownSession;
+	// Heatmap and version of the bins last shown in the panel. New bins of the same heatmap are shown at most
+	// once every HEATMAP_REFRESH_SECONDS, the bins are hourly so the copy and redraw don't need to follow every drop
+	private static final int HEATMAP_REFRESH_SECONDS = 60;
+	private XpHeatmap shownHeatmap;
+	private int shownHeatmapVersion;
+	private int secondsSinceHeatmapRefresh;
+
 	private NavigationButton navButton;
 	@Setter(AccessLevel.PACKAGE)
 	@VisibleForTesting
@@ -118,10 +174,33 @@ public class TimeToMaxPlugin extends Plugin
 	private XpWorldType lastWorldType;
 	private long lastAccount;
 	private long lastTickMillis = 0;
+	private int secondsSinceRefresh = 0;
+	private int secondsSinceRatePublish = 0;
+	private int secondsSinceOverallSync = 0;
 	private int initializeTracker;
+	private ScheduledFuture<?> pendingRecalculation;
+	// Interval the session baselines were last taken from, to detect when the tracked interval is switched. The
+	// per second tick checks periods against it, so a switch doesn't reset skills before they are rebased.
+	private volatile TrackingInterval trackedInterval;
+	// Save of the profile being logged in to, loaded in the background when the profile changes
+	private Future<XpSave> prefetchedSave;
+	private String prefetchedProfile;
 
 	private final XpPauseState xpPauseState = new XpPauseState();
 
+	// Skills that are maxed for the configured max skill mode. Xp drops for these return after a single set check,
+	// and their info box and overlay are removed once when the skill is retired rather than on every drop.
+	private final Set<Skill> retiredSkills = EnumSet.noneOf(Skill.class);
+	// Last known xp of each retired skill by ordinal, so their drops still count towards overall xp
+	private final int[] retiredSkillXp = new int[Skill.values().length];
+	// Skills with a canvas overlay, kept in sync by addOverlay and removeOverlay so lookups don't scan the overlays.
+	// Changed on the client thread only, the panel goes through setOverlayLater
+	private final Set<Skill> overlaySkills = EnumSet.noneOf(Skill.class);
+	// Stats tab menu options, eg. "View <col=ff981f>Attack</col> guide", mapped to their skill. There are only a
+	// handful of distinct options so after the first hover of a skill the menu handler is a single map lookup.
+	private final Map<String, Skill> statsMenuSkills = new HashMap<>();
+	private final Map<Skill, String> statsMenuTargets = new EnumMap<>(Skill.class);
+
 	@Provides
 	TimeToMaxConfig provideConfig(ConfigManager configManager)
 	{
@@ -137,6 +216,7 @@ public class TimeToMaxPlugin extends Plugin
 	@Override
 	protected void startUp() throws Exception
 	{
+		trackedInterval = config.trackingInterval();
 		// Create panel first
 		xpPanel = new XpPanel(this, config, client, skillIconManager);
 
@@ -150,6 +230,11 @@ public class TimeToMaxPlugin extends Plugin
 			.build();
 
 		clientToolbar.addNavigation(navButton);
+		overlayManager.add(recommendationOverlay);
+		metricsExporter.start();
+
+		// Parked state of other accounts that no longer fits the cache is written out off the client thread
+		xpState.setSaveHandler((profile, save) -> executor.execute(() -> saveSaveState(profile, save)));
 
 		// Initialize values
 		lastAccount = -1L;
@@ -161,6 +246,7 @@ public class TimeToMaxPlugin extends Plugin
 			{
 				lastAccount = client.getAccountHash();
 				lastWorldType = worldSetToType(client.getWorldType());
+				xpState.switchPartition(XpState.partitionKey(lastAccount, lastWorldType), configManager.getRSProfileKey());
 			}
 		});
 	}
@@ -168,13 +254,37 @@ public class TimeToMaxPlugin extends Plugin
 	@Override
 	protected void shutDown() throws Exception
 	{
+		synchronized (this)
+		{
+			if (pendingRecalculation != null)
+			{
+				pendingRecalculation.cancel(false);
+				pendingRecalculation = null;
+			}
+		}
 		overlayManager.removeIf(e -> e instanceof XpInfoBoxOverlay);
-		xpState.reset();
+		overlayManager.remove(recommendationOverlay);
+		overlaySkills.clear();
+		retiredSkills.clear();
+		recommender.clear();
+		recommendations = Collections.emptyList();
+		shownSession = null;
+		shownHeatmap = null;
+		xpState.clearPartitions();
+		prefetchedSave = null;
+		prefetchedProfile = null;
 		clientToolbar.removeNavigation(navButton);
+		metricsExporter.stop();
+		forecaster.cancel();
 	}
 
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged event)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.GAME_STATE_CHANGED, () -> processGameStateChanged(event));
+	}
+
+	private void processGameStateChanged(GameStateChanged event)
 	{
 		GameState state = event.getGameState();
 		if (state == GameState.LOGGED_IN)
@@ -193,7 +303,15 @@ public class TimeToMaxPlugin extends Plugin
 
 				lastAccount = client.getAccountHash();
 				lastWorldType = type;
-				resetState();
+				clearTrackingUi();
+
+				// Hopping back to an account and world type tracked earlier swaps its state back in, so it needs
+				// no save. Xp may have been gained elsewhere since, so the login stat burst is still left to the
+				// offline scan rather than handled as live drops
+				if (xpState.switchPartition(XpState.partitionKey(lastAccount, type), configManager.getRSProfileKey()))
+				{
+					restorePartitionUi();
+				}
 
 				// Must be set from hitting the LOGGING_IN or HOPPING case below
 				assert initializeTracker > 0;
@@ -205,6 +323,9 @@ public class TimeToMaxPlugin extends Plugin
 		}
 		else if (state == GameState.LOGIN_SCREEN)
 		{
+			// Logging out ends the session, the next tick shows it
+			xpState.endSession();
+
 			Player local = client.getLocalPlayer();
 			if (local == null)
 			{
@@ -222,15 +343,86 @@ public class TimeToMaxPlugin extends Plugin
 	@Subscribe
 	public void onRuneScapeProfileChanged(RuneScapeProfileChanged event)
 	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.PROFILE_CHANGED, () -> processProfileChanged(event));
+	}
+
+	private void processProfileChanged(RuneScapeProfileChanged event)
+	{
+		// The profile can change before or after LOGGED_IN switched the partition. If the switch came first,
+		// the incoming account's partition was tagged with the outgoing profile, move it to the new one.
+		final String profile = configManager.getRSProfileKey();
+		if (profile != null && xpState.isCurrentPartition(XpState.partitionKey(client.getAccountHash(), worldSetToType(client.getWorldType()))))
+		{
+			xpState.setProfileKey(profile);
+		}
+
+		// The save is a copy of the state, so it can be serialized off the client thread. The executor runs
+		// tasks in order, so a prefetch of this profile queued later will see this save.
 		XpSave save = xpState.save();
-		if (save != null)
+		final String saveProfile = xpState.getProfileKey();
+		if (save != null && saveProfile != null)
+		{
+			executor.execute(() -> saveSaveState(saveProfile, save));
+		}
+
+		prefetchSaveState(configManager.getRSProfileKey());
+	}
+
+	/**
+	 * Starts loading the save of a profile in the background, unless its state is already held in memory
+	 */
+	private void prefetchSaveState(String profile)
+	{
+		if (profile == null || profile.isEmpty() || xpState.isProfileCached(profile))
+		{
+			prefetchedProfile = null;
+			prefetchedSave = null;
+			return;
+		}
+
+		prefetchedProfile = profile;
+		prefetchedSave = executor.submit(() -> loadSaveState(profile));
+	}
+
+	/**
+	 * Gets the save of a profile, from the prefetch if one was started for it
+	 */
+	private XpSave takeSaveState(String profile)
+	{
+		final Future<XpSave> prefetched = prefetchedSave;
+		prefetchedSave = null;
+		if (prefetched != null && profile != null && profile.equals(prefetchedProfile))
 		{
-			saveSaveState(event.getPreviousProfile(), save);
+			// The prefetch shares the executor with other tasks, don't wait on the queue from the client thread
+			if (!prefetched.isDone())
+			{
+				prefetched.cancel(false);
+				return loadSaveState(profile);
+			}
+
+			try
+			{
+				return prefetched.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e)
+			{
+				log.debug("Failed to prefetch xp state for profile {}", profile, e.getCause());
+			}
 		}
+		return loadSaveState(profile);
 	}
 
 	@Subscribe
 	public void onClientShutdown(ClientShutdown event)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.CLIENT_SHUTDOWN, this::processClientShutdown);
+	}
+
+	private void processClientShutdown()
 	{
 		XpSave save = xpState.save();
 		if (save != null)
@@ -262,6 +454,7 @@ public class TimeToMaxPlugin extends Plugin
 	{
 		removeOverlay(skill);
 		overlayManager.add(new XpInfoBoxOverlay(this, config, skill, skillIconManager.getSkillImage(skill)));
+		overlaySkills.add(skill);
 	}
 
 	/**
@@ -271,18 +464,43 @@ public class TimeToMaxPlugin extends Plugin
 	 */
 	void removeOverlay(Skill skill)
 	{
-		overlayManager.removeIf(e -> e instanceof XpInfoBoxOverlay && ((XpInfoBoxOverlay) e).getSkill() == skill);
+		if (overlaySkills.remove(skill))
+		{
+			overlayManager.removeIf(e -> e instanceof XpInfoBoxOverlay && ((XpInfoBoxOverlay) e).getSkill() == skill);
+		}
+	}
+
+	/**
+	 * Shows or hides a skill's canvas overlay from the EDT, the overlay set is only changed on the client thread
+	 *
+	 * @param skill the skill whose overlay should be shown or hidden
+	 * @param shown whether the overlay should be shown
+	 */
+	void setOverlayLater(Skill skill, boolean shown)
+	{
+		clientThread.invokeLater(() ->
+		{
+			if (shown)
+			{
+				addOverlay(skill);
+			}
+			else
+			{
+				removeOverlay(skill);
+			}
+		});
 	}
 
 	/**
-	 * Check if there is an overlay on the canvas for the skill.
+	 * Check if there is an overlay on the canvas for the skill. The info box menu reads it from the EDT to label
+	 * its item, which at worst shows the state from before a pending change.
 	 *
 	 * @param skill the skill which should have an overlay.
 	 * @return true if the skill has an overlay.
 	 */
 	boolean hasOverlay(final Skill skill)
 	{
-		return overlayManager.anyMatch(o -> o instanceof XpInfoBoxOverlay && ((XpInfoBoxOverlay) o).getSkill() == skill);
+		return overlaySkills.contains(skill);
 	}
 
 	/**
@@ -312,9 +530,82 @@ public class TimeToMaxPlugin extends Plugin
 	private void resetState()
 	{
 		xpState.reset();
+		clearTrackingUi();
+	}
+
+	/**
+	 * Clears all info boxes and overlays without touching the tracked state
+	 */
+	private void clearTrackingUi()
+	{
 		xpPanel.resetAllInfoBoxes();
 		xpPanel.updateTotal(new XpSnapshotSingle.XpSnapshotSingleBuilder().build());
 		overlayManager.removeIf(e -> e instanceof XpInfoBoxOverlay);
+		overlaySkills.clear();
+		retiredSkills.clear();
+		progressPublisher.clear();
+		forecaster.cancel();
+		xpPanel.updateForecast(null);
+		recommender.clear();
+		recommendations = Collections.emptyList();
+		recommendationsDirty = false;
+		xpPanel.updateRecommendations(recommendations);
+	}
+
+	/**
+	 * Forecasts the max date from the daily history of every unmaxed skill, off the client thread
+	 */
+	private void startForecast()
+	{
+		final int goalXp = config.maxSkillMode() == MaxSkillMode.COMPLETIONIST ? Experience.MAX_SKILL_XP : XpCalculator.LEVEL_99_XP;
+		final int[] remainingXp = new int[Skill.values().length];
+		final int[][] dailyGains = new int[Skill.values().length][];
+		int skills = 0;
+		for (Skill skill : Skill.values())
+		{
+			final int remaining = goalXp - client.getSkillExperience(skill);
+			if (remaining > 0 && !retiredSkills.contains(skill))
+			{
+				remainingXp[skills] = remaining;
+				dailyGains[skills] = xpState.getDailyGains(skill);
+				skills++;
+			}
+		}
+
+		forecaster.forecast(Arrays.copyOf(remainingXp, skills), Arrays.copyOf(dailyGains, skills),
+			XpCalculator.today().toEpochDay(), xpPanel::updateForecast);
+	}
+
+	/**
+	 * Rebuilds the info boxes from the current xp state after switching back to an account and world type
+	 * that was tracked earlier.
+	 */
+	private void restorePartitionUi()
+	{
+		xpState.setLowestSkillFlag(xpState.findLowestSkillXp());
+		for (Skill skill : Skill.values())
+		{
+			final XpStateSingle state = xpState.getSkillState(skill);
+			if (state == null || state.getStartXp() == -1)
+			{
+				continue;
+			}
+
+			final int currentXp = (int) state.getCurrentXp();
+			if (isMaxed(currentXp))
+			{
+				retiredSkills.add(skill);
+				retiredSkillXp[skill.ordinal()] = currentXp;
+				continue;
+			}
+
+			xpPanel.rebuildSkillExperience(xpPauseState.isPaused(skill), skill, getSkillSnapshot(skill));
+			publishProgress(skill);
+		}
+
+		xpPanel.updateTotal(xpState.getTotalSnapshot());
+		xpPanel.updateTargetPanel(config);
+		startForecast();
 	}
 
 	/**
@@ -374,28 +665,46 @@ public class TimeToMaxPlugin extends Plugin
 	@Subscribe
 	public void onStatChanged(StatChanged statChanged)
 	{
-		final Skill skill = statChanged.getSkill();
-		final int currentXp = statChanged.getXp();
-		final int currentLevel = Experience.getLevelForXp(currentXp);
-
-		// Skip processing for skills that are already maxed
-		if (config.maxSkillMode() == MaxSkillMode.NORMAL)
+		final long perfNanos = XpPerfMetrics.startNanos();
+		final long perfBytes = XpPerfMetrics.startBytes();
+		try
 		{
-			if (currentLevel >= Experience.MAX_REAL_LEVEL)
+			final StatChangedJfrEvent jfrEvent = new StatChangedJfrEvent();
+			jfrEvent.begin();
+			processStatChanged(statChanged, perfNanos);
+			if (jfrEvent.shouldCommit())
 			{
-				xpPanel.resetSkill(skill);
-				removeOverlay(skill);
-				return;
+				jfrEvent.skill = statChanged.getSkill().getName();
+				jfrEvent.xp = statChanged.getXp();
+				jfrEvent.retired = retiredSkills.contains(statChanged.getSkill());
+				jfrEvent.commit();
 			}
 		}
-		else if (config.maxSkillMode() == MaxSkillMode.COMPLETIONIST)
+		finally
 		{
-			if (currentXp == Experience.MAX_SKILL_XP)
-			{
-				xpPanel.resetSkill(skill);
-				removeOverlay(skill);
-				return;
-			}
+			XpPerfMetrics.record(XpPerfMetrics.Metric.STAT_CHANGED, perfNanos, perfBytes);
+		}
+	}
+
+	/**
+	 * @param arrivalNanos System.nanoTime() the event arrived at, 0 if perf metrics are off
+	 */
+	private void processStatChanged(StatChanged statChanged, long arrivalNanos)
+	{
+		final Skill skill = statChanged.getSkill();
+		final int currentXp = statChanged.getXp();
+		if (retiredSkills.contains(skill))
+		{
+			xpState.addOverallXp(currentXp - retiredSkillXp[skill.ordinal()]);
+			retiredSkillXp[skill.ordinal()] = currentXp;
+			return;
+		}
+
+		// Skip processing for skills that are already maxed
+		if (isMaxed(currentXp))
+		{
+			retireSkill(skill, currentXp);
+			return;
 		}
 
 		// If this is the initial skill sync on login, initialize but don't process
@@ -412,9 +721,7 @@ public class TimeToMaxPlugin extends Plugin
 
 		// Calculate goal XP values using the period tracking system
 		final int goalStartXp = (int) getSkillState(skill).getStartXp();
-		final int intervalXp = XpCalculator.getRequiredXpPerInterval(
-			goalStartXp,
-			config);
+		final int intervalXp = getIntervalGoalXp(skill, goalStartXp);
 		final int goalEndXp = goalStartXp + intervalXp;
 
 		// Update the skill state and UI
@@ -435,9 +742,11 @@ public class TimeToMaxPlugin extends Plugin
 		int lowestStartXpAfterUpdate = xpState.findLowestSkillXp();
 		xpState.setLowestSkillFlag(lowestStartXpAfterUpdate);
 
-		// Update the skill that changed
-		xpPanel.updateSkillExperience(updateResult == XpUpdateResult.UPDATED, xpPauseState.isPaused(skill),
-			skill, getSkillSnapshot(skill));
+		// Update the skill that changed, accepted updates are traced until the info box is painted
+		final boolean updated = updateResult == XpUpdateResult.UPDATED;
+		xpPanel.updateSkillExperience(updated, xpPauseState.isPaused(skill),
+			skill, xpState.getSkillSnapshot(skill, updated ? arrivalNanos : 0L));
+		publishProgress(skill);
 		
 		// If the lowest skill changed or we have a significant state change, update all skills to refresh the highlighting
 		if (lowestStartXp != lowestStartXpAfterUpdate || updateResult == XpUpdateResult.INITIALIZED)
@@ -446,8 +755,7 @@ public class TimeToMaxPlugin extends Plugin
 			rebuildSkills();
 		}
 
-		// Also update the total experience
-		xpState.updateOverall(client.getOverallExperience());
+		// Also update the total experience, which xpState keeps in sync from the skill's xp delta
 		xpPanel.updateTotal(xpState.getTotalSnapshot());
 
 		// Update the target panel to reflect current XP rates
@@ -456,110 +764,139 @@ public class TimeToMaxPlugin extends Plugin
 
 	@Subscribe
 	public void onGameTick(GameTick event)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.GAME_TICK, this::countDownInitialization);
+	}
+
+	private void countDownInitialization()
 	{
 		if (initializeTracker > 0 && --initializeTracker == 0)
 		{
-			XpSave save;
-			// Restore from saved state
-			if (!xpState.isOverallInitialized() && (save = loadSaveState(configManager.getRSProfileKey())) != null)
-			{
-				log.debug("Loading xp state from save");
-				xpState.restore(save);
-				LocalDate periodStart = XpCalculator.getCurrentPeriodStart(config.trackingInterval());
+			final InitializationJfrEvent jfrEvent = new InitializationJfrEvent();
+			jfrEvent.begin();
+			initializeTracking(jfrEvent);
+			jfrEvent.commit();
+		}
+	}
 
-				for (Skill skill : save.skills.keySet())
-				{
-					XpStateSingle skillState = getSkillState(skill);
-					int startXp = (int) skillState.getStartXp();
-					int intervalXp = XpCalculator.getRequiredXpPerInterval(startXp, config);
-					int goalXp = startXp + intervalXp;
-					skillState.updateGoals(startXp, goalXp);
-					if (xpState.getSkill(skill).getStartYear() == 9999)
-					{
-						xpState.getSkill(skill).updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
-					}
-				}
+	/**
+	 * Restores the save and credits xp gained while logged out, once the client has sent all skills after login
+	 */
+	private void initializeTracking(InitializationJfrEvent jfrEvent)
+	{
+		XpSave save;
+		// Restore from saved state
+		if (!xpState.isOverallInitialized() && (save = takeSaveState(configManager.getRSProfileKey())) != null)
+		{
+			log.debug("Loading xp state from save");
+			xpState.restore(save);
+			jfrEvent.restoredSkills = save.skills.size();
+			LocalDate periodStart = XpCalculator.getCurrentPeriodStart(config.trackingInterval());
 
-				// apply state to the panel
-				for (Skill skill : save.skills.keySet())
+			for (Skill skill : save.skills.keySet())
+			{
+				XpStateSingle skillState = getSkillState(skill);
+				int startXp = (int) skillState.getStartXp();
+				int intervalXp = getIntervalGoalXp(skill, startXp);
+				int goalXp = startXp + intervalXp;
+				skillState.updateGoals(startXp, goalXp);
+				if (xpState.getSkill(skill).getStartYear() == 9999)
 				{
-					xpPanel.updateSkillExperience(true, false, skill, getSkillSnapshot(skill));
+					xpState.getSkill(skill).updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
 				}
 			}
 
-			// Check for xp gained while logged out (e.g. on mobile or another client)
-			for (Skill skill : Skill.values())
+			// apply state to the panel
+			for (Skill skill : save.skills.keySet())
 			{
-				if (!xpState.isInitialized(skill))
+				if (retiredSkills.contains(skill))
 				{
 					continue;
 				}
+				xpPanel.rebuildSkillExperience(false, skill, getSkillSnapshot(skill));
+			}
+		}
 
-				XpStateSingle skillState = getSkillState(skill);
-				final int currentXp = client.getSkillExperience(skill);
-				if (skillState.getCurrentXp() != currentXp)
-				{
-					if (currentXp < skillState.getCurrentXp())
-					{
-						log.debug("Xp is going backwards! {} {} -> {}", skill, skillState.getCurrentXp(), currentXp);
-						resetState();
-						clearSaveState(configManager.getRSProfileKey());
-						break;
-					}
-
-					log.debug("Skill xp for {} changed when offline: {} -> {}", skill, skillState.getCurrentXp(), currentXp);
-
-					LocalDate skillStart = skillState.convertToLocalDate(
-						skillState.getStartYear(), skillState.getStartMonth(), skillState.getStartDay());
-					boolean crossedBoundary = XpCalculator.shouldStartNewIntervalForDate(
-						config.trackingInterval(), skillStart);
-
-					if (crossedBoundary)
-					{
-						// Period rolled over while offline — re-baseline this skill against the new period.
-						LocalDate periodStart = XpCalculator.getCurrentPeriodStart(config.trackingInterval());
-						skillState.setStartXp(currentXp);
-						skillState.updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
-						int intervalXp = XpCalculator.getRequiredXpPerInterval(currentXp, config);
-						skillState.updateGoals(currentXp, currentXp + intervalXp);
-					}
-					else
-					{
-						// Same period — credit offline gains (mobile, etc.) toward the current period.
-						int goalStartXp = (int) skillState.getStartXp();
-						int intervalXp = XpCalculator.getRequiredXpPerInterval(goalStartXp, config);
-						xpState.updateSkill(skill, currentXp, goalStartXp, goalStartXp + intervalXp);
-					}
-				}
+		// Check for xp gained while logged out (e.g. on mobile or another client)
+		for (Skill skill : Skill.values())
+		{
+			if (!xpState.isInitialized(skill))
+			{
+				continue;
 			}
 
-			// Initialize the tracker with the initial xp if not already initialized
-			for (Skill skill : Skill.values())
+			XpStateSingle skillState = getSkillState(skill);
+			final int currentXp = client.getSkillExperience(skill);
+			if (skillState.getCurrentXp() != currentXp)
 			{
-				if (!xpState.isInitialized(skill))
+				if (currentXp < skillState.getCurrentXp())
 				{
-					final int currentXp = client.getSkillExperience(skill);
-					// goal exps are not necessary for skill initialization
-					XpUpdateResult xpUpdateResult = xpState.updateSkill(skill, currentXp, -1, -1);
-					assert xpUpdateResult == XpUpdateResult.INITIALIZED;
+					log.debug("Xp is going backwards! {} {} -> {}", skill, skillState.getCurrentXp(), currentXp);
+					resetState();
+					clearSaveState(configManager.getRSProfileKey());
+					break;
 				}
-			}
 
-			// Initialize all non-maxed skills
-			initializeNonMaxedSkills();
+				log.debug("Skill xp for {} changed when offline: {} -> {}", skill, skillState.getCurrentXp(), currentXp);
+				jfrEvent.offlineSkills++;
+
+				LocalDate skillStart = skillState.convertToLocalDate(
+					skillState.getStartYear(), skillState.getStartMonth(), skillState.getStartDay());
+				boolean crossedBoundary = XpCalculator.shouldStartNewIntervalForDate(
+					config.trackingInterval(), skillStart);
 
-			// Initialize the overall xp
-			if (!xpState.isOverallInitialized())
+				if (crossedBoundary)
+				{
+					// Period rolled over while offline — re-baseline this skill against the new period.
+					LocalDate periodStart = XpCalculator.getCurrentPeriodStart(config.trackingInterval());
+					settleCarryOver(skill, skillState, currentXp - skillState.getStartXp(), periodStart.toEpochDay());
+					skillState.setStartXp(currentXp);
+					skillState.updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
+					int intervalXp = getIntervalGoalXp(skill, currentXp);
+					skillState.updateGoals(currentXp, currentXp + intervalXp);
+				}
+				else
+				{
+					// Same period — credit offline gains (mobile, etc.) toward the current period.
+					int goalStartXp = (int) skillState.getStartXp();
+					int intervalXp = getIntervalGoalXp(skill, goalStartXp);
+					xpState.creditOfflineXp(skill, currentXp, goalStartXp, goalStartXp + intervalXp);
+				}
+			}
+		}
+
+		// Initialize the tracker with the initial xp if not already initialized
+		for (Skill skill : Skill.values())
+		{
+			if (!xpState.isInitialized(skill))
 			{
-				long overallXp = client.getOverallExperience();
-				log.debug("Initializing XP tracker with {} overall exp", overallXp);
-				xpState.initializeOverall(overallXp);
+				final int currentXp = client.getSkillExperience(skill);
+				// goal exps are not necessary for skill initialization
+				XpUpdateResult xpUpdateResult = xpState.updateSkill(skill, currentXp, -1, -1);
+				assert xpUpdateResult == XpUpdateResult.INITIALIZED;
 			}
+		}
 
-			int lowestStartXp = xpState.findLowestSkillXp();
-			xpState.setLowestSkillFlag(lowestStartXp);
+		// Take interval baselines that weren't restored from the save from the current xp
+		for (Skill skill : Skill.values())
+		{
+			xpState.updateIntervals(skill, client.getSkillExperience(skill));
 		}
 
+		// Initialize all non-maxed skills
+		initializeNonMaxedSkills();
+		startForecast();
+
+		// Initialize the overall xp
+		if (!xpState.isOverallInitialized())
+		{
+			long overallXp = client.getOverallExperience();
+			log.debug("Initializing XP tracker with {} overall exp", overallXp);
+			xpState.initializeOverall(overallXp);
+		}
+
+		int lowestStartXp = xpState.findLowestSkillXp();
+		xpState.setLowestSkillFlag(lowestStartXp);
 	}
 
 	private void initializeNonMaxedSkills()
@@ -567,34 +904,94 @@ public class TimeToMaxPlugin extends Plugin
 		for (Skill skill : Skill.values())
 		{
 			final int currentXp = client.getSkillExperience(skill);
-			final int currentLevel = Experience.getLevelForXp(currentXp);
 			final long storedStartXp = getSkillState(skill).getStartXp();
 			final int goalBaseline = storedStartXp == -1 ? currentXp : (int) storedStartXp;
 
 			// Only show non-maxed skills
-			if (config.maxSkillMode() == MaxSkillMode.NORMAL)
+			if (isMaxed(currentXp))
 			{
-				if ((currentLevel < Experience.MAX_REAL_LEVEL))
-				{
-					setCalculatedSkillExperience(skill, goalBaseline);
-				}
+				retireSkill(skill, currentXp);
 			}
-			else if (config.maxSkillMode() == MaxSkillMode.COMPLETIONIST)
+			else
 			{
-				if (currentXp < Experience.MAX_SKILL_XP)
-				{
-					setCalculatedSkillExperience(skill, goalBaseline);
-				}
+				setCalculatedSkillExperience(skill, goalBaseline);
 			}
 		}
 	}
 
+	/**
+	 * Check if a skill's xp reaches the goal of the configured max skill mode.
+	 *
+	 * @param xp the skill's current xp
+	 * @return true if the skill is maxed
+	 */
+	private boolean isMaxed(int xp)
+	{
+		if (config.maxSkillMode() == MaxSkillMode.COMPLETIONIST)
+		{
+			return xp >= Experience.MAX_SKILL_XP;
+		}
+		return xp >= XpCalculator.LEVEL_99_XP;
+	}
+
+	/**
+	 * Stops tracking a maxed skill, removing its info box and canvas overlay the first time it is retired.
+	 *
+	 * @param skill     the maxed skill
+	 * @param currentXp the skill's current xp
+	 */
+	private void retireSkill(Skill skill, int currentXp)
+	{
+		if (retiredSkills.add(skill))
+		{
+			retiredSkillXp[skill.ordinal()] = currentXp;
+			recommendationsDirty |= recommender.remove(skill);
+			xpPanel.resetSkill(skill);
+			removeOverlay(skill);
+		}
+	}
+
+	/**
+	 * Goal xp of a skill's interval starting at the given xp. In carry over mode the goal is the pace fixed when
+	 * the skill's balance started, adjusted by its running surplus or deficit.
+	 */
+	private int getIntervalGoalXp(Skill skill, int startXp)
+	{
+		final int requiredXp = XpCalculator.getRequiredXpPerInterval(startXp, config);
+		if (!config.carryOverGoals())
+		{
+			return requiredXp;
+		}
+
+		final int goalXp = config.maxSkillMode() == MaxSkillMode.COMPLETIONIST ? Experience.MAX_SKILL_XP : XpCalculator.LEVEL_99_XP;
+		return (int) Math.max(0, Math.min(goalXp - startXp, xpState.getCarryOverGoal(skill, requiredXp)));
+	}
+
+	/**
+	 * Adds a skill's surplus or deficit over the periods that ended since its period started to its balance
+	 *
+	 * @param gainedXp         Xp gained since the skill's period started
+	 * @param currentPeriodDay Epoch day the current period started
+	 */
+	private void settleCarryOver(Skill skill, XpStateSingle state, long gainedXp, long currentPeriodDay)
+	{
+		if (!config.carryOverGoals() || state.getStartXp() == -1 || state.getStartYear() == 9999 || retiredSkills.contains(skill))
+		{
+			return;
+		}
+
+		final long skillPeriodDay = state.convertToLocalDate(state.getStartYear(), state.getStartMonth(), state.getStartDay()).toEpochDay();
+		final int periods = XpIntervalCalendar.periodsBetween(trackedInterval, skillPeriodDay, currentPeriodDay);
+		if (periods > 0)
+		{
+			xpState.settleCarryOver(skill, gainedXp, periods);
+		}
+	}
+
 	private void setCalculatedSkillExperience(Skill skill, int startXp)
 	{
 		// Calculate the interval goal based on current XP
-		final int intervalXp = XpCalculator.getRequiredXpPerInterval(
-			startXp,
-			config);
+		final int intervalXp = getIntervalGoalXp(skill, startXp);
 		final int endGoalXp = startXp + intervalXp;
 
 		XpStateSingle x = getSkillState(skill);
@@ -607,12 +1004,17 @@ public class TimeToMaxPlugin extends Plugin
 			xpState.getSkill(skill).updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
 		}
 
-		xpPanel.updateSkillExperience(true, xpPauseState.isPaused(skill),
-			skill, getSkillSnapshot(skill));
+		xpPanel.rebuildSkillExperience(xpPauseState.isPaused(skill), skill, getSkillSnapshot(skill));
+		publishProgress(skill);
 	}
 
 	@Subscribe
 	public void onMenuEntryAdded(final MenuEntryAdded event)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.MENU_ENTRY_ADDED, () -> processMenuEntryAdded(event));
+	}
+
+	private void processMenuEntryAdded(final MenuEntryAdded event)
 	{
 		int widgetID = event.getActionParam1();
 
@@ -623,20 +1025,14 @@ public class TimeToMaxPlugin extends Plugin
 			return;
 		}
 
-		// Get skill from menu option, eg. "View <col=ff981f>Attack</col> guide"
-		final String skillText = event.getOption().split(" ")[1];
-		final Skill skill;
-
-		try
-		{
-			skill = Skill.valueOf(Text.removeTags(skillText).toUpperCase());
-		}
-		catch (IllegalArgumentException ignored)
+		final Skill skill = findStatsMenuSkill(event.getOption());
+		if (skill == null)
 		{
 			return;
 		}
+
 		client.getMenu().createMenuEntry(-1)
-			.setTarget(skillText)
+			.setTarget(statsMenuTargets.get(skill))
 			.setOption(hasOverlay(skill) ? MENUOP_REMOVE_CANVAS_TRACKER : MENUOP_ADD_CANVAS_TRACKER)
 			.setType(MenuAction.RUNELITE)
 			.onClick(e ->
@@ -652,13 +1048,44 @@ public class TimeToMaxPlugin extends Plugin
 			});
 	}
 
+	/**
+	 * Finds the skill of a stats tab menu option, eg. "View <col=ff981f>Attack</col> guide".
+	 * Options are parsed once and cached along with the skill's menu target text.
+	 *
+	 * @param option the menu option
+	 * @return the skill, or null if the option isn't for a skill
+	 */
+	private Skill findStatsMenuSkill(String option)
+	{
+		final Skill cached = statsMenuSkills.get(option);
+		if (cached != null || statsMenuSkills.containsKey(option))
+		{
+			return cached;
+		}
+
+		final String[] parts = option.split(" ");
+		final Skill skill = parts.length > 1 ? SKILLS_BY_NAME.get(Text.removeTags(parts[1])) : null;
+		if (skill != null)
+		{
+			statsMenuTargets.put(skill, parts[1]);
+		}
+		statsMenuSkills.put(option, skill);
+		return skill;
+	}
+
 	@Subscribe
 	public void onCommandExecuted(CommandExecuted commandExecuted)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.COMMAND_EXECUTED, () -> processCommandExecuted(commandExecuted));
+	}
+
+	private void processCommandExecuted(CommandExecuted commandExecuted)
 	{
 		String command = commandExecuted.getCommand();
 		if (command.equals("ttmreset"))
 		{
 			log.debug("TTM Reset command triggered by command");
+			xpState.clearCarryOver();
 			handleTTMReset();
 			client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "TTM has been reset by user.", null);
 			return;
@@ -682,6 +1109,9 @@ public class TimeToMaxPlugin extends Plugin
 			case "ttmgetstart":
 				handleDevGetStartCommand();
 				break;
+			case "ttmperf":
+				handleDevPerfCommand(args);
+				break;
 		}
 	}
 
@@ -852,16 +1282,38 @@ public class TimeToMaxPlugin extends Plugin
 	 */
 	private static LocalDateTime nextBoundaryAfter(LocalDateTime from, TrackingInterval interval)
 	{
-		LocalDate d = from.toLocalDate();
-		switch (interval)
+		final long day = from.toLocalDate().toEpochDay();
+		return LocalDate.ofEpochDay(XpCalculator.getCalendar(interval, day).getNextPeriodStart(day)).atStartOfDay();
+	}
+
+	private void handleDevPerfCommand(String[] args)
+	{
+		if (args.length > 0 && "reset".equalsIgnoreCase(args[0]))
 		{
-			case WEEK:
-				LocalDate nextMonday = d.with(java.time.DayOfWeek.MONDAY).plusWeeks(1);
-				return nextMonday.atStartOfDay();
-			case MONTH:
-				return d.withDayOfMonth(1).plusMonths(1).atStartOfDay();
-			default:
-				return d.plusDays(1).atStartOfDay();
+			XpPerfMetrics.reset();
+			devMessage("Perf metrics reset.");
+			return;
+		}
+
+		final int[] shown = {0};
+		XpPerfMetrics.forEachSummary(summary ->
+		{
+			if (summary.getCount() == 0)
+			{
+				return;
+			}
+
+			shown[0]++;
+			devMessage(summary.getMetric().getDisplayName()
+				+ ": n=" + summary.getCount()
+				+ ", p50 " + XpPanel.formatMicros(summary.getP50Nanos())
+				+ ", p99 " + XpPanel.formatMicros(summary.getP99Nanos())
+				+ ", max " + XpPanel.formatMicros(summary.getMaxNanos())
+				+ (summary.getBytesPerCall() < 0 ? "" : ", " + summary.getBytesPerCall() + " B/call"));
+		});
+		if (shown[0] == 0)
+		{
+			devMessage("No perf samples recorded" + (XpPerfMetrics.isEnabled() ? "." : ", metrics are disabled."));
 		}
 	}
 
@@ -909,9 +1361,33 @@ public class TimeToMaxPlugin extends Plugin
 		unit = ChronoUnit.SECONDS
 	)
 	public void tickSkillTimes()
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.TICK_SKILL_TIMES, this::traceTickSkills);
+	}
+
+	private void traceTickSkills()
+	{
+		final TickSkillTimesJfrEvent jfrEvent = new TickSkillTimesJfrEvent();
+		jfrEvent.begin();
+		tickSkills(jfrEvent);
+		if (jfrEvent.shouldCommit())
+		{
+			jfrEvent.retiredSkills = retiredSkills.size();
+			jfrEvent.commit();
+		}
+	}
+
+	private void tickSkills(TickSkillTimesJfrEvent jfrEvent)
 	{
 		int pauseSkillAfter = config.pauseSkillAfter();
+		final TrackingInterval interval = trackedInterval;
 		LocalDate earliestPeriodStart = null;
+		// Roll the day, week and month baselines first so a reset below starts from the new period
+		if (xpState.rollIntervals())
+		{
+			// A finished day adds to the daily history
+			startForecast();
+		}
 		// Adjust unpause states
 		for (Skill skill : Skill.values())
 		{
@@ -920,7 +1396,7 @@ public class TimeToMaxPlugin extends Plugin
 
 			if (xpState.getSkill(skill).getStartYear() == 9999)
 			{
-				LocalDate periodStart = XpCalculator.getCurrentPeriodStart(config.trackingInterval());
+				LocalDate periodStart = XpCalculator.getCurrentPeriodStart(interval);
 				xpState.getSkill(skill).updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
 			}
 
@@ -933,11 +1409,37 @@ public class TimeToMaxPlugin extends Plugin
 				earliestPeriodStart = startDate;
 			}
 		}
-		xpPauseState.tickOverall(client.getOverallExperience(), pauseSkillAfter);
+		xpPauseState.tickOverall(xpState.getOverallXp(), pauseSkillAfter);
 
 		final boolean loggedIn = client.getGameState().getState() >= GameState.LOADING.getState();
 		xpPauseState.tickLogout(config.pauseOnLogout(), loggedIn);
 
+		xpState.tickSession();
+		final XpSession lastSession = xpState.getLastSession();
+		if (lastSession != shownSession)
+		{
+			shownSession = lastSession;
+			xpPanel.updateLastSession(lastSession);
+		}
+
+		final XpHeatmap heatmap = xpState.getHeatmap();
+		++secondsSinceHeatmapRefresh;
+		if (heatmap != shownHeatmap
+			|| (heatmap.getVersion() != shownHeatmapVersion && secondsSinceHeatmapRefresh >= HEATMAP_REFRESH_SECONDS))
+		{
+			secondsSinceHeatmapRefresh = 0;
+			shownHeatmap = heatmap;
+			shownHeatmapVersion = heatmap.getVersion();
+			xpPanel.updateHeatmap(heatmap.copyBins());
+		}
+
+		// Overall xp is kept up to date from skill deltas, periodically make sure it hasn't drifted from the client
+		if (++secondsSinceOverallSync >= OVERALL_SYNC_SECONDS)
+		{
+			secondsSinceOverallSync = 0;
+			syncOverallXp(loggedIn);
+		}
+
 		if (lastTickMillis == 0)
 		{
 			lastTickMillis = System.currentTimeMillis();
@@ -962,20 +1464,85 @@ public class TimeToMaxPlugin extends Plugin
 
 		// If we have a period start date and we need to start a new period, trigger reset
 		if (earliestPeriodStart != null && 
-			XpCalculator.shouldStartNewIntervalForDate(config.trackingInterval(), earliestPeriodStart)
+			XpCalculator.shouldStartNewIntervalForDate(interval, earliestPeriodStart)
 			&& client.getGameState().getState() >= GameState.LOADING.getState())
 		{
-			log.info("Interval change detected for {} interval - triggering reset", config.trackingInterval());
+			log.info("Interval change detected for {} interval - triggering reset", interval);
+			final long periodStart = XpCalculator.getCurrentPeriodStart(interval).toEpochDay();
+			for (Skill skill : Skill.values())
+			{
+				final XpStateSingle state = xpState.getSkillState(skill);
+				if (state != null)
+				{
+					settleCarryOver(skill, state, state.getTotalXpGained(), periodStart);
+				}
+			}
 			handleTTMReset();
-			String message = String.format("Time to Max: New %s has been detected. Resetting xp tracker", config.trackingInterval());
+			String message = String.format("Time to Max: New %s has been detected. Resetting xp tracker", interval.getUnit());
 			clientThread.invoke(() ->{
 				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null);
 			});
 		}
 
-		rebuildSkills();
+		if (shouldRefreshPanel())
+		{
+			jfrEvent.panelRefreshed = true;
+			secondsSinceRatePublish = 0;
+			rebuildSkills();
 
-		xpPanel.updateTargetPanel(config);
+			xpPanel.updateTargetPanel(config);
+		}
+		else if (++secondsSinceRatePublish >= RATE_PUBLISH_SECONDS)
+		{
+			// Rates decay while a skill isn't trained, listeners see it even if the panel only refreshes on xp drops
+			secondsSinceRatePublish = 0;
+			for (Skill skill : Skill.values())
+			{
+				publishProgress(skill);
+			}
+		}
+
+		if (recommendationsDirty)
+		{
+			recommendationsDirty = false;
+			final List<XpRecommendation> top = recommender.top(MAX_RECOMMENDATIONS);
+			if (!isShownAs(top, recommendations))
+			{
+				recommendations = top;
+				xpPanel.updateRecommendations(recommendations);
+			}
+		}
+	}
+
+	private void syncOverallXp(boolean loggedIn)
+	{
+		if (!loggedIn || initializeTracker > 0 || !xpState.isOverallInitialized())
+		{
+			return;
+		}
+
+		final long overallXp = client.getOverallExperience();
+		if (xpState.getOverallXp() != overallXp)
+		{
+			log.debug("Overall xp drifted from the client: {} -> {}", xpState.getOverallXp(), overallXp);
+			xpState.updateOverall(overallXp);
+		}
+	}
+
+	/**
+	 * Whether the timed refresh of rate derived labels is due this second, per the configured refresh rate.
+	 * Updates caused by xp drops are pushed from onStatChanged and are not affected by this.
+	 */
+	private boolean shouldRefreshPanel()
+	{
+		final int refreshSeconds = config.panelRefreshRate().getSeconds();
+		if (refreshSeconds <= 0 || ++secondsSinceRefresh < refreshSeconds)
+		{
+			return false;
+		}
+
+		secondsSinceRefresh = 0;
+		return true;
 	}
 
 	@Schedule(
@@ -984,6 +1551,11 @@ public class TimeToMaxPlugin extends Plugin
 		asynchronous = true
 	)
 	public void tickStateSave()
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.STATE_SAVE, this::saveState);
+	}
+
+	private void saveState()
 	{
 		if (xpState == null)
 		{
@@ -991,13 +1563,17 @@ public class TimeToMaxPlugin extends Plugin
 			return;
 		}
 
+		final StateSaveJfrEvent jfrEvent = new StateSaveJfrEvent();
+		jfrEvent.begin();
 		XpSave save = xpState.save();
 		if (save != null)
 		{
 			String profile = configManager.getRSProfileKey();
 			saveSaveState(profile, save);
 			log.debug("Saved XP state for profile: {}", profile);
+			jfrEvent.skills = save.skills.size();
 		}
+		jfrEvent.commit();
 		// Find the earliest period start date from any skill
 		LocalDate earliestPeriodStart = null;
 		for (Skill skill : Skill.values())
@@ -1016,11 +1592,71 @@ public class TimeToMaxPlugin extends Plugin
 		for (Skill skill : Skill.values())
 		{
 			xpPanel.updateSkillExperience(false, xpPauseState.isPaused(skill), skill, getSkillSnapshot(skill));
+			publishProgress(skill);
 		}
 
 		xpPanel.updateTotal(xpState.getTotalSnapshot());
 	}
 
+	/**
+	 * Publishes a skill's progress and re-ranks it for the train next recommendations, called after every
+	 * update of the skill's state
+	 */
+	private void publishProgress(Skill skill)
+	{
+		final XpStateSingle state = xpState.getSkillState(skill);
+		progressPublisher.publish(skill, state, config.trackingInterval());
+		updateRecommendation(skill, state);
+	}
+
+	private void updateRecommendation(Skill skill, XpStateSingle state)
+	{
+		if (state == null || state.getStartXp() == -1 || retiredSkills.contains(skill))
+		{
+			recommendationsDirty |= recommender.remove(skill);
+			return;
+		}
+
+		final int goalXp = state.getGoalXp();
+		final int deficit = state.getXpRemaining();
+		if (goalXp <= 0 || deficit <= 0)
+		{
+			recommendationsDirty |= recommender.remove(skill);
+			return;
+		}
+
+		// A skill that isn't being trained is ranked at the pace that spreads its goal evenly over the period
+		final TrackingInterval interval = config.trackingInterval();
+		final long today = XpCalculator.today().toEpochDay();
+		final long periodDays = XpIntervalCalendar.nextPeriodStartOf(interval, today) - XpIntervalCalendar.periodStartOf(interval, today);
+		final double evenXpPerHour = goalXp / (periodDays * 24.0);
+		recommendationsDirty |= recommender.update(skill, deficit, deficit / Math.max(state.getXpHr(), evenXpPerHour));
+	}
+
+	private static boolean isShownAs(List<XpRecommendation> a, List<XpRecommendation> b)
+	{
+		if (a.size() != b.size())
+		{
+			return false;
+		}
+		for (int i = 0; i < a.size(); i++)
+		{
+			if (!a.get(i).isShownAs(b.get(i)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Skills most behind their interval goal, most behind first
+	 */
+	List<XpRecommendation> getRecommendations()
+	{
+		return recommendations;
+	}
+
 	void pauseSkill(Skill skill, boolean pause)
 	{
 		if (pause ? xpPauseState.pauseSkill(skill) : xpPauseState.unpauseSkill(skill))
@@ -1049,16 +1685,21 @@ public class TimeToMaxPlugin extends Plugin
 	{
 		if (state != null && profile != null && !profile.isEmpty())
 		{
-			// Save to config
-			try
-			{
-				configManager.setConfiguration("timeToMax", profile, "state", state);
-				log.debug("Successfully saved XP state for profile: {}", profile);
-			}
-			catch (Exception e)
-			{
-				log.warn("Failed to save XP state", e);
-			}
+			XpPerfMetrics.time(XpPerfMetrics.Metric.SAVE_STATE, () -> writeSaveState(profile, state));
+		}
+	}
+
+	private void writeSaveState(String profile, XpSave state)
+	{
+		// Save to config
+		try
+		{
+			configManager.setConfiguration("timeToMax", profile, "state", state);
+			log.debug("Successfully saved XP state for profile: {}", profile);
+		}
+		catch (Exception e)
+		{
+			log.warn("Failed to save XP state", e);
 		}
 	}
 
@@ -1083,13 +1724,19 @@ public class TimeToMaxPlugin extends Plugin
 			xpState.unInitializeSkill(s);
 		}
 		xpState.unInitializeOverall();
-		XpSave save = new XpSave();
+		// Keep the interval baselines, daily history and carry over balances
+		XpSave save = xpState.saveIntervals();
 		saveSaveState(configManager.getRSProfileKey(), save);
 		initializeTracker = 1;
 	}
 
 	@Subscribe
 	public void onConfigChanged(ConfigChanged event)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.CONFIG_CHANGED, () -> processConfigChanged(event));
+	}
+
+	private void processConfigChanged(ConfigChanged event)
 	{
 		if (!"timeToMax".equals(event.getGroup()))
 		{
@@ -1099,68 +1746,108 @@ public class TimeToMaxPlugin extends Plugin
 		// Check if the changed key is one we need to respond to
 		if ("targetDate".equals(event.getKey()) || "trackingInterval".equals(event.getKey()) ||
 			"maxSkillMode".equals(event.getKey()) || "xpOverride".equals(event.getKey()) ||
-			"minimumXpOverride".equals(event.getKey()) || "highlightLowestSkill".equals(event.getKey()))
+			"minimumXpOverride".equals(event.getKey()) || "highlightLowestSkill".equals(event.getKey()) ||
+			"carryOverGoals".equals(event.getKey()))
+		{
+			if (!"highlightLowestSkill".equals(event.getKey()))
+			{
+				// A goal recomputed from the current xp already spreads any deficit over the remaining periods,
+				// so a new pace starts from a clean balance. Cleared before the recalculation runs
+				clientThread.invokeLater(xpState::clearCarryOver);
+			}
+			log.debug("Config changed: {} - Scheduling recalculation", event.getKey());
+			scheduleRecalculation();
+		}
+		else if (event.getKey().startsWith("metricsExport"))
+		{
+			metricsExporter.start();
+		}
+		else if ("trainNextSkills".equals(event.getKey()))
 		{
-			log.debug("Config changed: {} - Triggering recalculation", event.getKey());
+			// Re-rendered with the new count, the recommendations themselves are unchanged
+			xpPanel.updateRecommendations(recommendations);
+		}
+	}
+
+	/**
+	 * Schedules a recalculation of all goals on the client thread, replacing any recalculation that is still
+	 * pending so a burst of config changes results in a single recalculation.
+	 */
+	private synchronized void scheduleRecalculation()
+	{
+		if (pendingRecalculation != null)
+		{
+			pendingRecalculation.cancel(false);
+		}
+
+		pendingRecalculation = executor.schedule(() -> clientThread.invokeLater(this::recalculateFromConfig),
+			CONFIG_RECALCULATION_DELAY_MS, TimeUnit.MILLISECONDS);
+	}
 
-			// Get the lowest starting xp in xpState
-			int lowestStartXp = xpState.findLowestSkillXp();
-			xpState.setLowestSkillFlag(lowestStartXp);
+	private void recalculateFromConfig()
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.CONFIG_RECALCULATION, this::recalculate);
+	}
 
-			if (config.xpOverride())
+	private void recalculate()
+	{
+		log.debug("Recalculating goals from config");
+
+		// Switching the tracked interval moves the session baseline to the already tracked start of the
+		// new interval's period, instead of waiting for the period check to reset the tracker
+		if (config.trackingInterval() != trackedInterval)
+		{
+			trackedInterval = config.trackingInterval();
+			for (Skill skill : Skill.values())
 			{
-				LocalDate targetDateWithXpOverride = XpCalculator.getMaxDateForLowestSkillWithOverride(
-					lowestStartXp,
-					config);
-					if (targetDateWithXpOverride != null)
-					{
-						// Update the target date in the config if it is set to override
-						configManager.setConfiguration("timeToMax", "targetDateWithXpOverride", targetDateWithXpOverride.toString());
-					}
+				xpState.rebaseSkill(skill, trackedInterval);
 			}
+			// Balances are in goals of the previous interval
+			xpState.clearCarryOver();
+		}
 
+		// Get the lowest starting xp in xpState
+		int lowestStartXp = xpState.findLowestSkillXp();
+		xpState.setLowestSkillFlag(lowestStartXp);
 
-			// Update the target panel with new config values
-			xpPanel.updateTargetPanel(config);
+		if (config.xpOverride())
+		{
+			LocalDate targetDateWithXpOverride = XpCalculator.getMaxDateForLowestSkillWithOverride(
+				lowestStartXp,
+				config);
+			// Update the target date in the config if it is set to override and has changed
+			if (targetDateWithXpOverride != null && !targetDateWithXpOverride.toString().equals(config.targetDateWithXpOverride()))
+			{
+				configManager.setConfiguration("timeToMax", "targetDateWithXpOverride", targetDateWithXpOverride.toString());
+			}
+		}
 
-			// Trigger reinitialization for all non-maxed skills
-			if (client.getGameState() == GameState.LOGGED_IN)
+		// Update the target panel with new config values
+		xpPanel.updateTargetPanel(config);
+
+		// Trigger reinitialization for all non-maxed skills
+		if (client.getGameState() == GameState.LOGGED_IN)
+		{
+			for (Skill skill : Skill.values())
 			{
-				for (Skill skill : Skill.values())
+				final int currentXp = client.getSkillExperience(skill);
+				final int startXp = getSkillState(skill).getStartXp() == -1 ? currentXp : (int) getSkillState(skill).getStartXp();
+
+				// The max skill mode may have changed, so re-evaluate which skills are retired
+				if (isMaxed(currentXp))
+				{
+					retireSkill(skill, currentXp);
+				}
+				else
 				{
-					final int currentXp = client.getSkillExperience(skill);
-					final int currentLevel = Experience.getLevelForXp(currentXp);
-					final int startXp = getSkillState(skill).getStartXp() == -1 ? currentXp : (int) getSkillState(skill).getStartXp();
-
-					if (config.maxSkillMode().equals(MaxSkillMode.NORMAL))
-					{
-						// Remove skills over level 99
-						if (currentLevel >= Experience.MAX_REAL_LEVEL)
-						{
-							xpPanel.resetSkill(skill);
-							removeOverlay(skill);
-						}
-						else
-						{
-							// Recalculate goals for skills under level 99
-							setCalculatedSkillExperience(skill, startXp);
-						}
-					}
-					else if (config.maxSkillMode() == MaxSkillMode.COMPLETIONIST)
-					{
-						// Ensure skills under 200m XP are displayed and goals recalculated
-						if (currentXp == Experience.MAX_SKILL_XP)
-						{
-							xpPanel.resetSkill(skill);
-							removeOverlay(skill);
-						}
-						else
-						{
-							setCalculatedSkillExperience(skill, startXp);
-						}
-					}
+					retiredSkills.remove(skill);
+					// Recalculate goals for skills that aren't maxed
+					setCalculatedSkillExperience(skill, startXp);
 				}
 			}
+
+			// The goal xp may have changed with the max skill mode
+			startForecast();
 		}
 	}
 }
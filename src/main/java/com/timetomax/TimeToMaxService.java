@@ -24,6 +24,7 @@
  */
 package com.timetomax;
 
+import java.util.Map;
 import net.runelite.api.Skill;
 
 public interface TimeToMaxService
@@ -62,4 +63,34 @@ public interface TimeToMaxService
 	 * Get the amount of time left until goal level
 	 */
 	String getTimeTilGoal(Skill skill);
+
+	/**
+	 * Get the last progress pushed to listeners, or null if the skill hasn't been tracked yet.
+	 * Unlike the getters above this doesn't build a new snapshot.
+	 */
+	XpProgress getProgress(Skill skill);
+
+	/**
+	 * Write a value of every skill's last pushed progress into the array, indexed by {@link Skill#ordinal()}.
+	 * Skills that haven't been tracked yet are written as 0. Nothing is allocated, so this can be called every frame.
+	 *
+	 * @param dest array of at least {@code Skill.values().length} entries
+	 */
+	void fill(XpProgressStat stat, int[] dest);
+
+	/**
+	 * Get the last pushed progress of every tracked skill as an immutable map. The same map is returned until
+	 * a skill's progress changes.
+	 */
+	Map<Skill, XpProgress> getAllProgress();
+
+	/**
+	 * Register a listener to be pushed skill progress as it changes, on the client thread
+	 */
+	void addListener(TimeToMaxListener listener);
+
+	/**
+	 * Unregister a listener added with {@link #addListener(TimeToMaxListener)}
+	 */
+	void removeListener(TimeToMaxListener listener);
 }
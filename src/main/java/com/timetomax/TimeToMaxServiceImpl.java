@@ -24,6 +24,7 @@
  */
 package com.timetomax;
 
+import java.util.Map;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import net.runelite.api.Skill;
@@ -32,11 +33,13 @@ import net.runelite.api.Skill;
 class TimeToMaxServiceImpl implements TimeToMaxService
 {
 	private final TimeToMaxPlugin plugin;
+	private final XpProgressPublisher progressPublisher;
 
 	@Inject
-	TimeToMaxServiceImpl(TimeToMaxPlugin plugin)
+	TimeToMaxServiceImpl(TimeToMaxPlugin plugin, XpProgressPublisher progressPublisher)
 	{
 		this.plugin = plugin;
+		this.progressPublisher = progressPublisher;
 	}
 
 	@Override
@@ -80,4 +83,34 @@ class TimeToMaxServiceImpl implements TimeToMaxService
 	{
 		return plugin.getSkillSnapshot(skill).getTimeTillGoalShort();
 	}
+
+	@Override
+	public XpProgress getProgress(Skill skill)
+	{
+		return progressPublisher.getLatest(skill);
+	}
+
+	@Override
+	public void fill(XpProgressStat stat, int[] dest)
+	{
+		progressPublisher.fill(stat, dest);
+	}
+
+	@Override
+	public Map<Skill, XpProgress> getAllProgress()
+	{
+		return progressPublisher.getAll();
+	}
+
+	@Override
+	public void addListener(TimeToMaxListener listener)
+	{
+		progressPublisher.addListener(listener);
+	}
+
+	@Override
+	public void removeListener(TimeToMaxListener listener)
+	{
+		progressPublisher.removeListener(listener);
+	}
 }
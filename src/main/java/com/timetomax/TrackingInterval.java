@@ -1,16 +1,35 @@
 package com.timetomax;
 
+import lombok.Getter;
+
 public enum TrackingInterval
 {
-	DAY("Day"),
-	WEEK("Week"),
-	MONTH("Month");
+	DAY("Day", "day", "days", 1),
+	THREE_DAYS("3 Days", "3-day period", "3-day periods", 3),
+	WEEK("Week", "week", "weeks", 7),
+	FORTNIGHT("Fortnight", "fortnight", "fortnights", 14),
+	MONTH("Month", "month", "months", 0);
 
 	private final String name;
+	/**
+	 * Lower case name of a single period, eg. "week"
+	 */
+	@Getter
+	private final String unit;
+	@Getter
+	private final String units;
+	/**
+	 * Fixed length of a period in days, or 0 for calendar months
+	 */
+	@Getter
+	private final int days;
 
-	TrackingInterval(String name)
+	TrackingInterval(String name, String unit, String units, int days)
 	{
 		this.name = name;
+		this.unit = unit;
+		this.units = units;
+		this.days = days;
 	}
 
 	@Override
@@ -18,4 +37,4 @@ public enum TrackingInterval
 	{
 		return name;
 	}
-}
\ No newline at end of file
+}
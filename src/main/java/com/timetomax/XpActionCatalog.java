@@ -0,0 +1,219 @@
+package com.timetomax;
+
+import java.util.Arrays;
+
+/**
+ * Frequencies of the xp values of a skill's xp drops, kept in a primitive int to int open addressing map with
+ * linear probing, so recording a drop is O(1) and allocates nothing.
+ * <p>
+ * The catalog holds at most {@link #MAX_ACTIONS} distinct values, a new value replaces the least frequent one
+ * when it is full. All frequencies are halved once their total reaches {@link #DECAY_TOTAL}, so the dominant
+ * action follows a change of activity.
+ */
+class XpActionCatalog
+{
+	static final int MAX_ACTIONS = 32;
+	static final int DECAY_TOTAL = 2048;
+	// Power of two, at most half full
+	private static final int CAPACITY = 64;
+	private static final int MASK = CAPACITY - 1;
+
+	// Xp per drop, 0 marks an empty slot
+	private final int[] keys = new int[CAPACITY];
+	private final int[] counts = new int[CAPACITY];
+	// Entries kept by a rehash, preallocated so evicting and decaying allocate nothing either
+	private final int[] rehashKeys = new int[MAX_ACTIONS];
+	private final int[] rehashCounts = new int[MAX_ACTIONS];
+	private int size;
+	private int total;
+	private int dominantXp;
+	private int dominantCount;
+
+	/**
+	 * Records an xp drop
+	 */
+	void add(int xp)
+	{
+		if (xp <= 0)
+		{
+			return;
+		}
+
+		int slot = find(xp);
+		if (keys[slot] == 0)
+		{
+			if (size == MAX_ACTIONS)
+			{
+				evictLeastFrequent();
+				slot = find(xp);
+			}
+			keys[slot] = xp;
+			size++;
+		}
+
+		final int count = ++counts[slot];
+		if (count > dominantCount || xp == dominantXp)
+		{
+			dominantXp = xp;
+			dominantCount = count;
+		}
+
+		if (++total >= DECAY_TOTAL)
+		{
+			decay();
+		}
+	}
+
+	/**
+	 * Xp of the most frequent drop, 0 if no drops are known
+	 */
+	int getDominantXp()
+	{
+		return dominantXp;
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	private static int slotOf(int xp)
+	{
+		// Fibonacci hashing, the top bits of the product index the table
+		return (xp * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(CAPACITY));
+	}
+
+	private int find(int xp)
+	{
+		int slot = slotOf(xp);
+		while (keys[slot] != 0 && keys[slot] != xp)
+		{
+			slot = (slot + 1) & MASK;
+		}
+		return slot;
+	}
+
+	private void evictLeastFrequent()
+	{
+		int evict = -1;
+		for (int i = 0; i < CAPACITY; i++)
+		{
+			if (keys[i] != 0 && keys[i] != dominantXp && (evict == -1 || counts[i] < counts[evict]))
+			{
+				evict = i;
+			}
+		}
+		total -= counts[evict];
+		counts[evict] = 0;
+		rehash();
+	}
+
+	private void decay()
+	{
+		for (int i = 0; i < CAPACITY; i++)
+		{
+			counts[i] >>= 1;
+		}
+		rehash();
+	}
+
+	/**
+	 * Reinserts the entries with a count, dropping the rest, and recomputes the totals and the dominant drop
+	 */
+	private void rehash()
+	{
+		int kept = 0;
+		for (int i = 0; i < CAPACITY; i++)
+		{
+			if (keys[i] != 0 && counts[i] > 0)
+			{
+				rehashKeys[kept] = keys[i];
+				rehashCounts[kept++] = counts[i];
+			}
+		}
+
+		final int previousDominant = dominantXp;
+		clear();
+		for (int i = 0; i < kept; i++)
+		{
+			put(rehashKeys[i], rehashCounts[i]);
+		}
+
+		// A tie keeps the previous dominant drop rather than whichever comes first in the table
+		final int slot = find(previousDominant);
+		if (previousDominant != 0 && keys[slot] == previousDominant && counts[slot] == dominantCount)
+		{
+			dominantXp = previousDominant;
+		}
+	}
+
+	private void put(int xp, int count)
+	{
+		final int slot = find(xp);
+		if (keys[slot] == 0)
+		{
+			if (size == MAX_ACTIONS)
+			{
+				return;
+			}
+			keys[slot] = xp;
+			size++;
+		}
+		counts[slot] += count;
+		total += count;
+		if (counts[slot] > dominantCount)
+		{
+			dominantXp = xp;
+			dominantCount = counts[slot];
+		}
+	}
+
+	private void clear()
+	{
+		Arrays.fill(keys, 0);
+		Arrays.fill(counts, 0);
+		size = 0;
+		total = 0;
+		dominantXp = 0;
+		dominantCount = 0;
+	}
+
+	/**
+	 * @return xp and count pairs of all drops, flattened
+	 */
+	int[] save()
+	{
+		final int[] pairs = new int[size * 2];
+		int i = 0;
+		for (int slot = 0; slot < CAPACITY; slot++)
+		{
+			if (keys[slot] != 0)
+			{
+				pairs[i++] = keys[slot];
+				pairs[i++] = counts[slot];
+			}
+		}
+		return pairs;
+	}
+
+	void restore(int[] pairs)
+	{
+		clear();
+		if (pairs == null)
+		{
+			return;
+		}
+
+		for (int i = 0; i + 1 < pairs.length; i += 2)
+		{
+			if (pairs[i] > 0 && pairs[i + 1] > 0)
+			{
+				put(pairs[i], pairs[i + 1]);
+			}
+		}
+		if (total >= DECAY_TOTAL)
+		{
+			decay();
+		}
+	}
+}
@@ -1,13 +1,12 @@
 package com.timetomax;
 
-import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.time.temporal.IsoFields;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import net.runelite.api.Skill;
 
 /**
@@ -28,6 +27,11 @@ public class XpCalculator
 	// from the override point, so the panel clock advances and boundary crossings happen live.
 	private static volatile Duration timeOffset = Duration.ZERO;
 
+	// Last built calendars, two per interval: one for lookups up to today and one out to a target date, so the
+	// two kinds of lookups don't evict each other. Calendars are immutable, so a stale read only causes a rebuild.
+	private static final AtomicReferenceArray<XpIntervalCalendar> calendars =
+		new AtomicReferenceArray<>(TrackingInterval.values().length * 2);
+
 	/**
 	 * Returns the current date-time, honoring the dev-only offset if one is set.
 	 * All interval / boundary / target-date logic should call this (or today()) instead of
@@ -137,18 +141,52 @@ public class XpCalculator
 	 * @return XP required per interval
 	 */
 	public static int getRequiredXpPerInterval(int startXp, TimeToMaxConfig config)
+	{
+		return getRequiredXpPerInterval(startXp, config, config.trackingInterval());
+	}
+
+	/**
+	 * Get the required XP per interval to reach max level by the target date, for an interval other than
+	 * the configured one
+	 *
+	 * @param startXp  Start XP in the skill
+	 * @param config   instance of TimeToMaxConfig
+	 * @param interval The interval to get the goal for
+	 * @return XP required per interval
+	 */
+	public static int getRequiredXpPerInterval(int startXp, TimeToMaxConfig config, TrackingInterval interval)
 	{
 		int xpPerDay = getRequiredXpPerDay(startXp, config);
+		if (interval == TrackingInterval.DAY)
+		{
+			return xpPerDay;
+		}
 
-		switch (config.trackingInterval())
+		// Use the exact length of the current period, eg. 28 to 31 days for a month
+		final long today = today().toEpochDay();
+		final long days = getCalendar(interval, today).getPeriodDays(today);
+		return (int) Math.min(Integer.MAX_VALUE, xpPerDay * days);
+	}
+
+	/**
+	 * Get a calendar of the interval's periods from today's period to the target date, reusing the last built
+	 * calendar while it still starts at today's period and reaches the target date.
+	 *
+	 * @param interval  The tracking interval
+	 * @param targetDay Epoch day of the target date
+	 * @return The interval calendar
+	 */
+	static XpIntervalCalendar getCalendar(TrackingInterval interval, long targetDay)
+	{
+		final long today = today().toEpochDay();
+		final int slot = interval.ordinal() * 2 + (targetDay <= today ? 0 : 1);
+		XpIntervalCalendar calendar = calendars.get(slot);
+		if (calendar == null || !calendar.covers(today, targetDay))
 		{
-			case WEEK:
-				return xpPerDay * 7;
-			case MONTH:
-				return xpPerDay * 30;
-			default:
-				return xpPerDay;
+			calendar = new XpIntervalCalendar(interval, today, targetDay);
+			calendars.set(slot, calendar);
 		}
+		return calendar;
 	}
 
 	/**
@@ -166,21 +204,10 @@ public class XpCalculator
 			return true;
 		}
 
-		LocalDate now = today();
-		switch (interval)
-		{
-			case DAY:
-				return !now.equals(referenceDate);
-			case WEEK:
-				// Check if the current date is in a different ISO week than the reference date
-				return now.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) != referenceDate.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)
-						|| now.getYear() != referenceDate.getYear();
-			case MONTH:
-				// Check if the current date is in a different calendar month than the reference date
-				return now.getMonth() != referenceDate.getMonth() || now.getYear() != referenceDate.getYear();
-			default:
-				return true;
-		}
+		// A reference date in another period than today, including a later one, starts a new interval
+		final long today = today().toEpochDay();
+		return XpIntervalCalendar.periodStartOf(interval, referenceDate.toEpochDay())
+			!= XpIntervalCalendar.periodStartOf(interval, today);
 	}
 
 	/**
@@ -205,16 +232,8 @@ public class XpCalculator
 	 */
 	public static LocalDate getCurrentPeriodStart(TrackingInterval interval)
 	{
-		LocalDate now = today();
-		switch (interval)
-		{
-			case WEEK:
-				return now.with(DayOfWeek.MONDAY);
-			case MONTH:
-				return now.withDayOfMonth(1);
-			default:
-				return now;
-		}
+		final long today = today().toEpochDay();
+		return LocalDate.ofEpochDay(getCalendar(interval, today).getPeriodStart(today));
 	}
 
 	public static LocalDate getMaxDateForLowestSkillWithOverride(int lowestSkillXp, TimeToMaxConfig config)
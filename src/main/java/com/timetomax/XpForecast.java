@@ -0,0 +1,17 @@
+package com.timetomax;
+
+import java.time.LocalDate;
+import lombok.Value;
+
+/**
+ * Percentiles of the simulated max dates, a date is null if it lies beyond the simulated horizon
+ */
+@Value
+class XpForecast
+{
+	LocalDate p10;
+	LocalDate p50;
+	LocalDate p90;
+	// Days of history the forecast was sampled from
+	int historyDays;
+}
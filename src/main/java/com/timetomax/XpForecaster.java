@@ -0,0 +1,182 @@
+package com.timetomax;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.inject.Singleton;
+import javax.swing.SwingUtilities;
+
+/**
+ * Monte Carlo forecast of the max date. Every simulated path draws each skill's daily gains from the skill's
+ * recorded daily history until the skill reaches its goal, the path's max date is the day the last skill gets
+ * there. Paths are simulated in chunks on a small dedicated fork join pool, off the client thread and the EDT.
+ * <p>
+ * The work is bounded by the number of paths and the simulated horizon, and starting a new forecast cancels
+ * the one that is running.
+ */
+@Singleton
+class XpForecaster
+{
+	static final int PATHS = 4000;
+	// Days of history a skill needs before it can be forecast
+	static final int MIN_HISTORY_DAYS = 3;
+	// Paths that don't reach max within this many days count as never reaching it
+	static final int MAX_DAYS = 3650;
+	private static final int PATHS_PER_TASK = 250;
+
+	private final ForkJoinPool pool = new ForkJoinPool(
+		Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+		forkJoinPool ->
+		{
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("timetomax-forecast-" + thread.getPoolIndex());
+			return thread;
+		},
+		null,
+		false);
+
+	private Future<?> running;
+	private AtomicBoolean cancelled;
+
+	/**
+	 * Starts a forecast, cancelling the previous one if it's still running
+	 *
+	 * @param remainingXp Xp each unmaxed skill still needs
+	 * @param dailyGains  Daily gains history of each of those skills, oldest first
+	 * @param today       Epoch day the forecast starts from
+	 * @param callback    Receives the forecast, or null if there isn't enough history. Called on the EDT unless
+	 *                    the forecast is decided up front, and never for a cancelled forecast
+	 */
+	synchronized void forecast(int[] remainingXp, int[][] dailyGains, long today, Consumer<XpForecast> callback)
+	{
+		cancel();
+
+		final int historyDays = Arrays.stream(dailyGains).mapToInt(gains -> gains.length).min().orElse(0);
+		if (remainingXp.length > 0 && historyDays < MIN_HISTORY_DAYS)
+		{
+			callback.accept(null);
+			return;
+		}
+
+		for (int[] gains : dailyGains)
+		{
+			if (Arrays.stream(gains).allMatch(gained -> gained == 0))
+			{
+				// A skill that wasn't trained on any recorded day never gets there
+				callback.accept(new XpForecast(null, null, null, historyDays));
+				return;
+			}
+		}
+
+		final AtomicBoolean runCancelled = new AtomicBoolean();
+		cancelled = runCancelled;
+		running = pool.submit(() ->
+		{
+			final int[] finishDays = new int[PATHS];
+			final int tasks = (PATHS + PATHS_PER_TASK - 1) / PATHS_PER_TASK;
+			final PathChunk[] chunks = new PathChunk[tasks];
+			final long seed = System.nanoTime();
+			for (int i = 0; i < tasks; i++)
+			{
+				final int from = i * PATHS_PER_TASK;
+				chunks[i] = new PathChunk(remainingXp, dailyGains, finishDays, from, Math.min(PATHS, from + PATHS_PER_TASK),
+					new SplittableRandom(seed + i), runCancelled);
+			}
+			ForkJoinTask.invokeAll(chunks);
+
+			if (runCancelled.get())
+			{
+				return;
+			}
+
+			Arrays.sort(finishDays);
+			final XpForecast forecast = new XpForecast(
+				toDate(today, finishDays[PATHS / 10]),
+				toDate(today, finishDays[PATHS / 2]),
+				toDate(today, finishDays[PATHS * 9 / 10]),
+				historyDays);
+			// Checked again on the EDT, so a forecast cancelled while it was queued never replaces a cleared one
+			SwingUtilities.invokeLater(() ->
+			{
+				if (!runCancelled.get())
+				{
+					callback.accept(forecast);
+				}
+			});
+		});
+	}
+
+	synchronized void cancel()
+	{
+		if (running != null)
+		{
+			cancelled.set(true);
+			running.cancel(false);
+			running = null;
+			cancelled = null;
+		}
+	}
+
+	private static LocalDate toDate(long today, int days)
+	{
+		return days > MAX_DAYS ? null : LocalDate.ofEpochDay(today + days);
+	}
+
+	private static final class PathChunk extends RecursiveAction
+	{
+		private final int[] remainingXp;
+		private final int[][] dailyGains;
+		private final int[] finishDays;
+		private final int from;
+		private final int to;
+		private final SplittableRandom random;
+		private final AtomicBoolean cancelled;
+
+		private PathChunk(int[] remainingXp, int[][] dailyGains, int[] finishDays, int from, int to,
+			SplittableRandom random, AtomicBoolean cancelled)
+		{
+			this.remainingXp = remainingXp;
+			this.dailyGains = dailyGains;
+			this.finishDays = finishDays;
+			this.from = from;
+			this.to = to;
+			this.random = random;
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		protected void compute()
+		{
+			for (int path = from; path < to && !cancelled.get(); path++)
+			{
+				int maxDays = 0;
+				for (int skill = 0; skill < remainingXp.length && maxDays <= MAX_DAYS; skill++)
+				{
+					maxDays = Math.max(maxDays, simulate(remainingXp[skill], dailyGains[skill]));
+				}
+				finishDays[path] = maxDays;
+			}
+		}
+
+		/**
+		 * Days until the skill reaches its goal, more than MAX_DAYS if it doesn't within the horizon
+		 */
+		private int simulate(long remaining, int[] gains)
+		{
+			int days = 0;
+			while (remaining > 0 && days <= MAX_DAYS)
+			{
+				remaining -= gains[random.nextInt(gains.length)];
+				days++;
+			}
+			return days;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.timetomax;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import net.runelite.api.Skill;
+
+/**
+ * Xp gained per skill in each hour of the week, Monday 00:00 is hour 0. The hour of the week is cached until
+ * the hour ends, so adding a drop is O(1) and allocates nothing.
+ */
+class XpHeatmap
+{
+	static final int HOURS = 7 * 24;
+	private static final Skill[] SKILLS = Skill.values();
+
+	private final int[][] bins = new int[SKILLS.length][HOURS];
+	// Bumped on every change, so views only redraw when the bins changed
+	private volatile int version;
+
+	// Hour of the week of the last drop and the wall clock millis it is valid in
+	private int hour = -1;
+	private long hourStartMillis;
+	private long hourEndMillis;
+
+	void add(Skill skill, long xp)
+	{
+		final int[] skillBins = bins[skill.ordinal()];
+		final int bin = currentHour();
+		skillBins[bin] = (int) Math.min(Integer.MAX_VALUE, skillBins[bin] + xp);
+		version++;
+	}
+
+	private int currentHour()
+	{
+		final long nowMillis = System.currentTimeMillis();
+		if (hour == -1 || nowMillis < hourStartMillis || nowMillis >= hourEndMillis)
+		{
+			// Follows the dev time override like the interval boundaries
+			final LocalDateTime now = XpCalculator.now();
+			final LocalDateTime start = now.truncatedTo(ChronoUnit.HOURS);
+			hour = (now.getDayOfWeek().getValue() - 1) * 24 + now.getHour();
+			hourStartMillis = nowMillis - ChronoUnit.MILLIS.between(start, now);
+			hourEndMillis = hourStartMillis + 60 * 60 * 1000;
+		}
+		return hour;
+	}
+
+	int getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Copies the bins, by Skill ordinal and hour of the week
+	 */
+	int[][] copyBins()
+	{
+		final int[][] copy = new int[SKILLS.length][];
+		for (int i = 0; i < SKILLS.length; i++)
+		{
+			copy[i] = bins[i].clone();
+		}
+		return copy;
+	}
+
+	void clear()
+	{
+		for (int[] skillBins : bins)
+		{
+			Arrays.fill(skillBins, 0);
+		}
+		version++;
+	}
+
+	/**
+	 * Saves the bins of every trained skill as hour and xp pairs of the hours with xp
+	 */
+	void save(XpSave save)
+	{
+		for (Skill skill : SKILLS)
+		{
+			final int[] skillBins = bins[skill.ordinal()];
+			int hours = 0;
+			for (int xp : skillBins)
+			{
+				if (xp > 0)
+				{
+					hours++;
+				}
+			}
+			if (hours == 0)
+			{
+				continue;
+			}
+
+			final int[] pairs = new int[hours * 2];
+			int i = 0;
+			for (int bin = 0; bin < HOURS; bin++)
+			{
+				if (skillBins[bin] > 0)
+				{
+					pairs[i++] = bin;
+					pairs[i++] = skillBins[bin];
+				}
+			}
+			save.heatmap.put(skill, pairs);
+		}
+	}
+
+	void restore(XpSave save)
+	{
+		clear();
+		if (save.heatmap == null)
+		{
+			return;
+		}
+
+		for (Map.Entry<Skill, int[]> entry : save.heatmap.entrySet())
+		{
+			final int[] pairs = entry.getValue();
+			// Skills unknown to this client deserialize as null
+			if (entry.getKey() == null || pairs == null)
+			{
+				continue;
+			}
+
+			final int[] skillBins = bins[entry.getKey().ordinal()];
+			for (int i = 0; i + 1 < pairs.length; i += 2)
+			{
+				if (pairs[i] >= 0 && pairs[i] < HOURS && pairs[i + 1] > 0)
+				{
+					skillBins[pairs[i]] = pairs[i + 1];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package com.timetomax;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import javax.swing.ImageIcon;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.border.EmptyBorder;
+import net.runelite.api.Skill;
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * Heatmap of the xp gained in each hour of the week, days top to bottom and hours left to right. The image is
+ * cached and only redrawn when new bins arrive or another skill is selected. EDT only.
+ */
+class XpHeatmapPanel extends JPanel
+{
+	private static final int CELL = 7;
+	private static final int DAY_LABEL_WIDTH = 10;
+	private static final int HOUR_LABEL_HEIGHT = 10;
+	private static final int WIDTH = DAY_LABEL_WIDTH + 24 * CELL;
+	private static final int HEIGHT = 7 * CELL + HOUR_LABEL_HEIGHT;
+	private static final String ALL_SKILLS = "All skills";
+	// Cell colours from no xp to the peak hour, indexed by the square root of the share of the peak
+	private static final Color[] RAMP = new Color[32];
+
+	static
+	{
+		for (int i = 0; i < RAMP.length; i++)
+		{
+			RAMP[i] = blend(ColorScheme.DARK_GRAY_COLOR, ColorScheme.PROGRESS_COMPLETE_COLOR, (double) i / (RAMP.length - 1));
+		}
+	}
+
+	private final JComboBox<String> skillSelect = new JComboBox<>();
+	private final JLabel imageLabel = new JLabel();
+	private final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+	// Latest bins by Skill ordinal and hour of the week
+	private int[][] bins;
+	// Bins and selection the image was last drawn from
+	private int[][] drawnBins;
+	private int drawnSelection = -1;
+
+	XpHeatmapPanel()
+	{
+		setBorder(new EmptyBorder(0, 10, 10, 10));
+		setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		setLayout(new BorderLayout(0, 5));
+		setVisible(false);
+
+		final JLabel title = new JLabel("Training hours");
+		title.setFont(FontManager.getRunescapeSmallFont());
+
+		skillSelect.addItem(ALL_SKILLS);
+		for (Skill skill : Skill.values())
+		{
+			skillSelect.addItem(skill.getName());
+		}
+		skillSelect.addActionListener(e -> redraw());
+
+		final JPanel header = new JPanel(new BorderLayout());
+		header.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		header.add(title, BorderLayout.WEST);
+		header.add(skillSelect, BorderLayout.EAST);
+
+		imageLabel.setIcon(new ImageIcon(image));
+		add(header, BorderLayout.NORTH);
+		add(imageLabel, BorderLayout.CENTER);
+	}
+
+	void update(int[][] bins)
+	{
+		this.bins = bins;
+		redraw();
+	}
+
+	private void redraw()
+	{
+		final int selection = skillSelect.getSelectedIndex();
+		if (bins == null || (bins == drawnBins && selection == drawnSelection))
+		{
+			return;
+		}
+		drawnBins = bins;
+		drawnSelection = selection;
+
+		// Index 0 is every skill summed, the rest are skills by ordinal
+		final long[] hours = new long[XpHeatmap.HOURS];
+		long total = 0;
+		long allSkillsTotal = 0;
+		for (int skill = 0; skill < bins.length; skill++)
+		{
+			final boolean selected = selection <= 0 || skill == selection - 1;
+			for (int hour = 0; hour < XpHeatmap.HOURS; hour++)
+			{
+				allSkillsTotal += bins[skill][hour];
+				if (selected)
+				{
+					hours[hour] += bins[skill][hour];
+					total += bins[skill][hour];
+				}
+			}
+		}
+
+		// Hidden until any xp is binned
+		setVisible(allSkillsTotal > 0);
+
+		int peak = 0;
+		for (int hour = 1; hour < XpHeatmap.HOURS; hour++)
+		{
+			if (hours[hour] > hours[peak])
+			{
+				peak = hour;
+			}
+		}
+
+		draw(hours, hours[peak]);
+		imageLabel.setToolTipText(total == 0 ? "No xp tracked yet"
+			: "Most xp on " + DayOfWeek.of(peak / 24 + 1).getDisplayName(TextStyle.SHORT, Locale.getDefault())
+				+ String.format(" %02d:00", peak % 24));
+		imageLabel.repaint();
+	}
+
+	private void draw(long[] hours, long max)
+	{
+		final Graphics2D g = image.createGraphics();
+		try
+		{
+			g.setColor(ColorScheme.DARKER_GRAY_COLOR);
+			g.fillRect(0, 0, WIDTH, HEIGHT);
+			g.setFont(FontManager.getRunescapeSmallFont());
+
+			for (int day = 0; day < 7; day++)
+			{
+				g.setColor(ColorScheme.LIGHT_GRAY_COLOR);
+				g.drawString(DayOfWeek.of(day + 1).getDisplayName(TextStyle.NARROW, Locale.getDefault()), 0, (day + 1) * CELL);
+				for (int hour = 0; hour < 24; hour++)
+				{
+					final long xp = hours[day * 24 + hour];
+					// Square root scale, so the quieter hours still show next to a long grind
+					g.setColor(xp == 0 ? ColorScheme.DARK_GRAY_COLOR
+						: RAMP[Math.max(1, (int) Math.round(Math.sqrt((double) xp / max) * (RAMP.length - 1)))]);
+					g.fillRect(DAY_LABEL_WIDTH + hour * CELL, day * CELL, CELL - 1, CELL - 1);
+				}
+			}
+
+			g.setColor(ColorScheme.LIGHT_GRAY_COLOR);
+			for (int hour = 0; hour < 24; hour += 6)
+			{
+				g.drawString(String.valueOf(hour), DAY_LABEL_WIDTH + hour * CELL, HEIGHT - 1);
+			}
+		}
+		finally
+		{
+			g.dispose();
+		}
+	}
+
+	private static Color blend(Color from, Color to, double ratio)
+	{
+		return new Color(
+			(int) (from.getRed() + (to.getRed() - from.getRed()) * ratio),
+			(int) (from.getGreen() + (to.getGreen() - from.getGreen()) * ratio),
+			(int) (from.getBlue() + (to.getBlue() - from.getBlue()) * ratio));
+	}
+}
@@ -29,16 +29,24 @@ package com.timetomax;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Graphics;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.swing.ImageIcon;
 import javax.swing.JComponent;
+import javax.swing.ButtonGroup;
 import javax.swing.JLabel;
+import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
+import javax.swing.JRadioButtonMenuItem;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
@@ -75,8 +83,23 @@ class XpInfoBox extends JPanel
 			+ "%s </html>";
 	private static final String PROGRESS_BAR_TOOLTIP_NO_ACTIONS =
 		"<html>%s %s%s</html>";
-	private static final String HTML_LABEL_TEMPLATE =
-		"<html><body style='color:%s; max-height:16px; white-space: nowrap; overflow: hidden;'>%s<span style='color:white;'>%s</span></body></html>";
+	// Html label split around the key and value, so building a label is a plain concatenation
+	private static final String HTML_LABEL_PREFIX =
+		"<html><body style='color:" + ColorUtil.toHexColor(ColorScheme.LIGHT_GRAY_COLOR) + "; max-height:16px; white-space: nowrap; overflow: hidden;'>";
+	private static final String HTML_LABEL_VALUE = "<span style='color:white;'>";
+	private static final String HTML_LABEL_SUFFIX = "</span></body></html>";
+	private static final Map<XpPanelLabel, String> LABEL_KEYS = new EnumMap<>(XpPanelLabel.class);
+
+	static
+	{
+		for (XpPanelLabel label : XpPanelLabel.values())
+		{
+			LABEL_KEYS.put(label, label.getKey() + ": ");
+		}
+	}
+
+	// Traces pending longer than this were painted late, e.g. once the box was scrolled into view, and aren't recorded
+	private static final long MAX_PAINT_TRACE_NANOS = TimeUnit.SECONDS.toNanos(5);
 
 	private static final String REMOVE_STATE = "Remove from canvas";
 	private static final String ADD_STATE = "Add to canvas";
@@ -107,21 +130,36 @@ class XpInfoBox extends JPanel
 
 	private final ProgressBar progressBar = new ProgressBar();
 
-	private final JLabel topLeftStat = new JLabel();
-	private final JLabel bottomLeftStat = new JLabel();
-	private final JLabel topRightStat = new JLabel();
-	private final JLabel bottomRightStat = new JLabel();
+	private final XpStatLabel topLeftStat = new XpStatLabel();
+	private final XpStatLabel bottomLeftStat = new XpStatLabel();
+	private final XpStatLabel topRightStat = new XpStatLabel();
+	private final XpStatLabel bottomRightStat = new XpStatLabel();
 	//private final JLabel targetXpStat = new JLabel();
 	private final JMenuItem pauseSkill = new JMenuItem("Pause");
 	private final JMenuItem canvasItem = new JMenuItem(ADD_STATE);
+	private final Map<TrackingInterval, JRadioButtonMenuItem> intervalItems = new EnumMap<>(TrackingInterval.class);
 
 	private final TimeToMaxConfig config;
+	private final XpPanel xpPanel;
 
 	private boolean paused = false;
 
-	XpInfoBox(TimeToMaxPlugin timeToMaxPlugin, TimeToMaxConfig config, JComponent panel, Skill skill, SkillIconManager iconManager)
+	// Interval shown in place of the tracked one, null to show the tracked interval. EDT only
+	private TrackingInterval viewInterval;
+	// Last updated snapshot, to redraw at once when another interval is shown. EDT only
+	private XpSnapshotSingle lastSnapshot;
+
+	// System.nanoTime() of the last traced xp drop that hasn't been painted yet, EDT only
+	private long paintTraceNanos;
+
+	// Whether the interval goal was met as of the last update, used by the panel to pin completed skills
+	@Getter(AccessLevel.PACKAGE)
+	private boolean completed = false;
+
+	XpInfoBox(TimeToMaxPlugin timeToMaxPlugin, TimeToMaxConfig config, XpPanel xpPanel, JComponent panel, Skill skill, SkillIconManager iconManager)
 	{
 		this.config = config;
+		this.xpPanel = xpPanel;
 		this.panel = panel;
 		this.skill = skill;
 
@@ -144,12 +182,26 @@ class XpInfoBox extends JPanel
 		popupMenu.add(resetPerHour);
 		popupMenu.add(pauseSkill);
 		popupMenu.add(canvasItem);
+
+		// Every interval is tracked at once, so any of them can be shown without a reset
+		final JMenu intervalMenu = new JMenu("Show interval");
+		final ButtonGroup intervalGroup = new ButtonGroup();
+		for (TrackingInterval interval : TrackingInterval.values())
+		{
+			final JRadioButtonMenuItem item = new JRadioButtonMenuItem(interval.toString());
+			item.addActionListener(e -> showInterval(interval));
+			intervalGroup.add(item);
+			intervalMenu.add(item);
+			intervalItems.put(interval, item);
+		}
+		popupMenu.add(intervalMenu);
 		popupMenu.addPopupMenuListener(new PopupMenuListener()
 		{
 			@Override
 			public void popupMenuWillBecomeVisible(PopupMenuEvent popupMenuEvent)
 			{
 				canvasItem.setText(timeToMaxPlugin.hasOverlay(skill) ? REMOVE_STATE : ADD_STATE);
+				intervalItems.get(getShownInterval()).setSelected(true);
 			}
 
 			@Override
@@ -163,17 +215,7 @@ class XpInfoBox extends JPanel
 			}
 		});
 
-		canvasItem.addActionListener(e ->
-		{
-			if (canvasItem.getText().equals(REMOVE_STATE))
-			{
-				timeToMaxPlugin.removeOverlay(skill);
-			}
-			else
-			{
-				timeToMaxPlugin.addOverlay(skill);
-			}
-		});
+		canvasItem.addActionListener(e -> timeToMaxPlugin.setOverlayLater(skill, !canvasItem.getText().equals(REMOVE_STATE)));
 
 		headerPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
 		headerPanel.setLayout(new BorderLayout());
@@ -249,14 +291,51 @@ class XpInfoBox extends JPanel
 	void reset()
 	{
 		canvasItem.setText(ADD_STATE);
+		viewInterval = null;
+		lastSnapshot = null;
 		setCompactView(false);
 		panel.remove(this);
 		panel.revalidate();
 	}
 
-	void update(boolean updated, boolean paused, XpSnapshotSingle xpSnapshotSingle)
+	/**
+	 * @param traced Whether to record the latency from the snapshot's xp drop until it is painted,
+	 *               false for snapshots replayed after the panel was hidden
+	 */
+	void update(boolean updated, boolean paused, XpSnapshotSingle xpSnapshotSingle, boolean traced)
+	{
+		SwingUtilities.invokeLater(() -> rebuildAsync(updated, paused, xpSnapshotSingle, traced));
+	}
+
+	/**
+	 * Same as {@link #update(boolean, boolean, XpSnapshotSingle, boolean)}, for callers already on the EDT
+	 */
+	void updateNow(boolean updated, boolean paused, XpSnapshotSingle xpSnapshotSingle, boolean traced)
 	{
-		SwingUtilities.invokeLater(() -> rebuildAsync(updated, paused, xpSnapshotSingle));
+		rebuildAsync(updated, paused, xpSnapshotSingle, traced);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		super.paintComponent(g);
+		if (paintTraceNanos != 0L)
+		{
+			final long tracedNanos = System.nanoTime() - paintTraceNanos;
+			if (tracedNanos <= MAX_PAINT_TRACE_NANOS)
+			{
+				XpPerfMetrics.recordNanos(XpPerfMetrics.Metric.XP_DROP_TO_PAINT, tracedNanos);
+			}
+			paintTraceNanos = 0L;
+		}
+	}
+
+	/**
+	 * Drops the pending paint trace, for when the box won't be painted until the panel is shown again
+	 */
+	void clearPaintTrace()
+	{
+		paintTraceNanos = 0L;
 	}
 
 	private void toggleCompactView()
@@ -284,44 +363,101 @@ class XpInfoBox extends JPanel
 		return skillIcon;
 	}
 
-	private void rebuildAsync(boolean updated, boolean skillPaused, XpSnapshotSingle xpSnapshotSingle)
+	private void rebuildAsync(boolean updated, boolean skillPaused, XpSnapshotSingle xpSnapshotSingle, boolean traced)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.INFO_BOX_REBUILD, () -> traceRebuild(updated, skillPaused, xpSnapshotSingle, traced));
+	}
+
+	private void traceRebuild(boolean updated, boolean skillPaused, XpSnapshotSingle xpSnapshotSingle, boolean traced)
+	{
+		final InfoBoxRebuildJfrEvent jfrEvent = new InfoBoxRebuildJfrEvent();
+		jfrEvent.begin();
+		rebuild(updated, skillPaused, xpSnapshotSingle);
+		if (jfrEvent.shouldCommit())
+		{
+			jfrEvent.skill = skill.getName();
+			jfrEvent.updated = updated;
+			jfrEvent.commit();
+		}
+
+		if (traced && xpSnapshotSingle.getUpdateNanos() != 0L)
+		{
+			// Repaint the whole box so the trace completes even if only child labels changed
+			paintTraceNanos = xpSnapshotSingle.getUpdateNanos();
+			repaint();
+		}
+	}
+
+	private TrackingInterval getShownInterval()
+	{
+		return viewInterval == null ? config.trackingInterval() : viewInterval;
+	}
+
+	private void showInterval(TrackingInterval interval)
+	{
+		viewInterval = interval == config.trackingInterval() ? null : interval;
+		if (lastSnapshot != null)
+		{
+			rebuild(true, paused, lastSnapshot);
+		}
+	}
+
+	/**
+	 * Progress of the snapshot's skill towards the goal of another interval than the tracked one, from the
+	 * interval's baseline. Null if the interval has no baseline yet.
+	 */
+	private XpSnapshotSingle intervalView(XpSnapshotSingle snapshot, TrackingInterval interval)
+	{
+		final long[] intervalStartXp = snapshot.getIntervalStartXp();
+		if (intervalStartXp == null || intervalStartXp[interval.ordinal()] == -1)
+		{
+			return null;
+		}
+
+		final int startXp = (int) intervalStartXp[interval.ordinal()];
+		final int gainedXp = (int) (snapshot.getCurrentXp() - startXp);
+		final int requiredXp = XpCalculator.getRequiredXpPerInterval(startXp, config, interval);
+		final int remainingXp = Math.max(0, requiredXp - gainedXp);
+		final int xpPerHour = snapshot.getXpPerHour();
+		final long secondsTill = xpPerHour > 0 ? remainingXp * 3600L / xpPerHour : -1;
+		final int snapshotRemaining = snapshot.getXpRemainingToGoal();
+		final int dominantXp = snapshot.getDominantActionXp();
+		final LocalDate periodStart = XpCalculator.getCurrentPeriodStart(interval);
+		return snapshot.toBuilder()
+			.startDay(periodStart.getDayOfMonth())
+			.startMonth(periodStart.getMonthValue())
+			.startYear(periodStart.getYear())
+			.startGoalXp(startXp)
+			.endGoalXp(startXp + requiredXp)
+			.xpGainedInSession(gainedXp)
+			.xpRemainingToGoal(remainingXp)
+			.skillProgressToGoal(requiredXp <= 0 ? 100 : Math.min(100, gainedXp * 100.0 / requiredXp))
+			.timeTillGoal(XpStateSingle.formatTimeTill(secondsTill, XpGoalTimeType.DAYS))
+			.timeTillGoalHours(XpStateSingle.formatTimeTill(secondsTill, XpGoalTimeType.HOURS))
+			.timeTillGoalShort(XpStateSingle.formatTimeTill(secondsTill, XpGoalTimeType.SHORT))
+			// Average actions scale with the xp left, which is all the snapshot knows of them
+			.actionsRemainingToGoal(snapshot.getActionsRemainingToGoal() == Integer.MAX_VALUE || snapshotRemaining <= 0
+				? Integer.MAX_VALUE
+				: (int) Math.min(Integer.MAX_VALUE, ((long) snapshot.getActionsRemainingToGoal() * remainingXp + snapshotRemaining - 1) / snapshotRemaining))
+			.dominantActionsRemainingToGoal(dominantXp > 0 ? (remainingXp + dominantXp - 1) / dominantXp : Integer.MAX_VALUE)
+			.build();
+	}
+
+	private void rebuild(boolean updated, boolean skillPaused, XpSnapshotSingle snapshot)
 	{
+		if (updated)
+		{
+			lastSnapshot = snapshot;
+		}
+
+		final XpSnapshotSingle view = viewInterval == null ? null : intervalView(snapshot, viewInterval);
+		final XpSnapshotSingle xpSnapshotSingle = view == null ? snapshot : view;
 		if (updated)
 		{
 			if (getParent() != panel)
 			{
+				// The panel revalidates once its ordering pass has run
 				panel.add(this);
-				panel.revalidate();
-			}
-
-			// Handle prioritized skills (move to top)
-			if (config.prioritizeRecentXpSkills())
-			{
-				panel.setComponentZOrder(this, 0);
-			}
-
-			// Handle completed skills (move to bottom)
-			if (config.pinCompletedSkillsToBottom())
-			{
-				int goalStartXp = xpSnapshotSingle.getStartGoalXp();
-				int xpGained = xpSnapshotSingle.getXpGainedInSession();
-				int currentXp = goalStartXp + xpGained;
-
-				// If we have goal information and enough XP to determine completion
-				try
-				{
-					// If skill target is met, move to bottom of panel
-					var startGoalXp = xpSnapshotSingle.getStartGoalXp();
-					if (Math.max(0, currentXp - startGoalXp) >= XpCalculator.getRequiredXpPerInterval(startGoalXp, config))
-					{
-						panel.setComponentZOrder(this, panel.getComponentCount() - 1);
-						panel.revalidate();
-					}
-				}
-				catch (Exception e)
-				{
-					// Don't change positioning if we can't determine completion status
-				}
 			}
 
 			paused = skillPaused;
@@ -329,7 +465,11 @@ class XpInfoBox extends JPanel
 			// Always use consistent XP values from the snapshot
 			int goalStartXp = xpSnapshotSingle.getStartGoalXp();
 			int xpGained = xpSnapshotSingle.getXpGainedInSession();
-			int requiredXpForInterval = XpCalculator.getRequiredXpPerInterval(goalStartXp, config);
+			// Carried over goals and other intervals' goals are only known from the snapshot
+			int requiredXpForInterval = config.carryOverGoals() || view != null
+				? Math.max(0, xpSnapshotSingle.getEndGoalXp() - goalStartXp)
+				: XpCalculator.getRequiredXpPerInterval(goalStartXp, config);
+			completed = Math.max(0, xpGained) >= requiredXpForInterval;
 
 			// Update progress bar
 			progressBar.setValue((int) xpSnapshotSingle.getSkillProgressToGoal());
@@ -360,7 +500,7 @@ class XpInfoBox extends JPanel
 				"<br/>%s/%s target XP for %s",
 				QuantityFormatter.quantityToRSDecimalStack(xpGained, true),
 				QuantityFormatter.quantityToRSDecimalStack(requiredXpForInterval, true),
-				config.trackingInterval().toString().toLowerCase());
+				(view == null ? config.trackingInterval() : viewInterval).getUnit());
 			String startDateValue = String.format("%04d-%02d-%02d",
 				xpSnapshotSingle.getStartYear(),
 				xpSnapshotSingle.getStartMonth(),
@@ -392,6 +532,7 @@ class XpInfoBox extends JPanel
 			}
 
 			progressBar.setDimmed(skillPaused);
+			xpPanel.queueReorder();
 		}
 		// Handle paused state changes
 		else if (!paused && skillPaused)
@@ -408,10 +549,11 @@ class XpInfoBox extends JPanel
 		}
 		// Update information labels
 		// Update exp per hour separately, every time (not only when there's an update)
-		topLeftStat.setText(htmlLabel(config.xpPanelLabel1(), xpSnapshotSingle));
-		topRightStat.setText(htmlLabel(config.xpPanelLabel2(), xpSnapshotSingle));
-		bottomLeftStat.setText(htmlLabel(config.xpPanelLabel3(), xpSnapshotSingle));
-		bottomRightStat.setText(htmlLabel(config.xpPanelLabel4(), xpSnapshotSingle));
+		final boolean plainText = config.plainStatLabels();
+		updateStatLabel(topLeftStat, plainText, config.xpPanelLabel1(), xpSnapshotSingle);
+		updateStatLabel(topRightStat, plainText, config.xpPanelLabel2(), xpSnapshotSingle);
+		updateStatLabel(bottomLeftStat, plainText, config.xpPanelLabel3(), xpSnapshotSingle);
+		updateStatLabel(bottomRightStat, plainText, config.xpPanelLabel4(), xpSnapshotSingle);
 		
 		// Apply outline border if this skill has the lowest XP
 		if (config.highlightLowestSkill() && xpSnapshotSingle.isLowestSkill())
@@ -424,17 +566,18 @@ class XpInfoBox extends JPanel
 		}
 	}
 
-	private String htmlLabel(XpPanelLabel panelLabel, XpSnapshotSingle xpSnapshotSingle)
+	private void updateStatLabel(XpStatLabel label, boolean plainText, XpPanelLabel panelLabel, XpSnapshotSingle xpSnapshotSingle)
 	{
+		label.setPlainText(plainText);
+
 		// hide actions for combat skills
 		if (isActions(panelLabel) && isCombatSkill(skill))
 		{
-			return "";
+			label.setStat("", "");
+			return;
 		}
 
-		String key = panelLabel.getKey() + ": ";
-		String value = panelLabel.getValueFunc().apply(xpSnapshotSingle);
-		return htmlLabel(key, value);
+		label.setStat(LABEL_KEYS.get(panelLabel), panelLabel.getValueFunc().apply(xpSnapshotSingle));
 	}
 
 	private static boolean isActions(XpPanelLabel panelLabel)
@@ -455,6 +598,6 @@ class XpInfoBox extends JPanel
 
 	static String htmlLabel(String key, String valueStr)
 	{
-		return String.format(HTML_LABEL_TEMPLATE, ColorUtil.toHexColor(ColorScheme.LIGHT_GRAY_COLOR), key, valueStr);
+		return HTML_LABEL_PREFIX + key + HTML_LABEL_VALUE + valueStr + HTML_LABEL_SUFFIX;
 	}
 }
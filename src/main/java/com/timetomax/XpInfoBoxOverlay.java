@@ -82,6 +82,28 @@ class XpInfoBoxOverlay extends OverlayPanel
 
 	@Override
 	public Dimension render(Graphics2D graphics)
+	{
+		final long perfNanos = XpPerfMetrics.startNanos();
+		final long perfBytes = XpPerfMetrics.startBytes();
+		try
+		{
+			final OverlayRenderJfrEvent jfrEvent = new OverlayRenderJfrEvent();
+			jfrEvent.begin();
+			final Dimension dimension = renderSkill(graphics);
+			if (jfrEvent.shouldCommit())
+			{
+				jfrEvent.skill = skill.getName();
+				jfrEvent.commit();
+			}
+			return dimension;
+		}
+		finally
+		{
+			XpPerfMetrics.record(XpPerfMetrics.Metric.OVERLAY_RENDER, perfNanos, perfBytes);
+		}
+	}
+
+	private Dimension renderSkill(Graphics2D graphics)
 	{
 		iconXpSplitPanel.getChildren().clear();
 
@@ -0,0 +1,177 @@
+package com.timetomax;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Precomputed period boundaries of a {@link TrackingInterval}, as epoch days, from the period containing a given
+ * day up to the period containing the target date. Lookups are binary searches over the boundaries.
+ * <p>
+ * Fixed length periods are aligned to Monday 1970-01-05, so weeks match ISO weeks and fortnights and 3-day
+ * periods are stable across restarts. Months follow the calendar.
+ * Instances are immutable and can be shared between the client thread and the EDT.
+ */
+class XpIntervalCalendar
+{
+	// Epoch day of Monday 1970-01-05
+	private static final long FIRST_MONDAY = 4;
+	// Boundaries are only precomputed this far ahead, later target dates are extrapolated
+	private static final int MAX_PRECOMPUTED_DAYS = 3660;
+
+	private final TrackingInterval interval;
+	// Period start days, the last entry is the end of the last precomputed period
+	private final long[] boundaries;
+	// Whether the target date lies beyond the precomputed periods
+	private final boolean truncated;
+
+	XpIntervalCalendar(TrackingInterval interval, long fromDay, long targetDay)
+	{
+		this.interval = interval;
+
+		final long lastDay = Math.min(Math.max(targetDay, fromDay + 1), fromDay + MAX_PRECOMPUTED_DAYS);
+		truncated = targetDay > lastDay;
+		long[] starts = new long[16];
+		int count = 0;
+		long day = periodStartOf(interval, fromDay);
+		while (true)
+		{
+			if (count == starts.length)
+			{
+				starts = Arrays.copyOf(starts, count * 2);
+			}
+			starts[count++] = day;
+			if (day >= lastDay)
+			{
+				break;
+			}
+			day = nextPeriodStart(interval, day);
+		}
+		boundaries = Arrays.copyOf(starts, count);
+	}
+
+	/**
+	 * Start of the period containing the given day, computed directly without a calendar
+	 */
+	static long periodStartOf(TrackingInterval interval, long epochDay)
+	{
+		if (interval == TrackingInterval.MONTH)
+		{
+			return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+		}
+
+		final int days = interval.getDays();
+		return epochDay - Math.floorMod(epochDay - FIRST_MONDAY, days);
+	}
+
+	/**
+	 * Start of the period after the one containing the given day, computed directly without a calendar
+	 */
+	static long nextPeriodStartOf(TrackingInterval interval, long epochDay)
+	{
+		return nextPeriodStart(interval, periodStartOf(interval, epochDay));
+	}
+
+	/**
+	 * Number of period starts after the period containing fromDay, up to and including the period containing toDay
+	 */
+	static int periodsBetween(TrackingInterval interval, long fromDay, long toDay)
+	{
+		final long from = periodStartOf(interval, fromDay);
+		final long to = periodStartOf(interval, toDay);
+		if (interval == TrackingInterval.MONTH)
+		{
+			final LocalDate fromDate = LocalDate.ofEpochDay(from);
+			final LocalDate toDate = LocalDate.ofEpochDay(to);
+			return (toDate.getYear() - fromDate.getYear()) * 12 + toDate.getMonthValue() - fromDate.getMonthValue();
+		}
+		return (int) ((to - from) / interval.getDays());
+	}
+
+	private static long nextPeriodStart(TrackingInterval interval, long periodStart)
+	{
+		if (interval == TrackingInterval.MONTH)
+		{
+			return LocalDate.ofEpochDay(periodStart).plusMonths(1).toEpochDay();
+		}
+		return periodStart + interval.getDays();
+	}
+
+	TrackingInterval getInterval()
+	{
+		return interval;
+	}
+
+	/**
+	 * Whether this calendar starts at the period containing the given day and reaches the target date, so a
+	 * calendar built before a rollover isn't reused after it
+	 */
+	boolean covers(long day, long target)
+	{
+		return boundaries[0] == periodStartOf(interval, day) && (truncated || target <= boundaries[boundaries.length - 1]);
+	}
+
+	/**
+	 * Index of the period containing the given day, or -1 if the day is outside the precomputed periods
+	 */
+	int indexOf(long day)
+	{
+		if (day < boundaries[0] || day >= boundaries[boundaries.length - 1])
+		{
+			return -1;
+		}
+
+		final int idx = Arrays.binarySearch(boundaries, day);
+		return idx >= 0 ? idx : -idx - 2;
+	}
+
+	long getPeriodStart(long day)
+	{
+		final int idx = indexOf(day);
+		return idx == -1 ? periodStartOf(interval, day) : boundaries[idx];
+	}
+
+	long getNextPeriodStart(long day)
+	{
+		final int idx = indexOf(day);
+		return idx == -1 ? nextPeriodStart(interval, periodStartOf(interval, day)) : boundaries[idx + 1];
+	}
+
+	/**
+	 * Exact length in days of the period containing the given day
+	 */
+	int getPeriodDays(long day)
+	{
+		return (int) (getNextPeriodStart(day) - getPeriodStart(day));
+	}
+
+	/**
+	 * Number of periods, starting with the one containing the given day, that start before the target date
+	 */
+	long getPeriodsRemaining(long day, long target)
+	{
+		final long start = getPeriodStart(day);
+		if (target <= start)
+		{
+			return 0;
+		}
+
+		final long last = boundaries[boundaries.length - 1];
+		if (target <= last && indexOf(day) != -1)
+		{
+			final int from = indexOf(day);
+			final int idx = Arrays.binarySearch(boundaries, target);
+			// Count boundaries strictly before the target
+			final int before = idx >= 0 ? idx : -idx - 1;
+			return before - from;
+		}
+
+		// Beyond the precomputed range
+		if (interval == TrackingInterval.MONTH)
+		{
+			final LocalDate from = LocalDate.ofEpochDay(start);
+			final LocalDate to = LocalDate.ofEpochDay(target - 1).withDayOfMonth(1);
+			return (to.getYear() - from.getYear()) * 12L + to.getMonthValue() - from.getMonthValue() + 1;
+		}
+		return (target - start + interval.getDays() - 1) / interval.getDays();
+	}
+}
@@ -0,0 +1,245 @@
+package com.timetomax;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+
+/**
+ * Tracks the xp baseline of a single skill for every {@link TrackingInterval} at once, so switching the
+ * tracked interval can rebase the session instead of resetting it.
+ * Arrays are indexed by {@link TrackingInterval#ordinal()}.
+ */
+class XpIntervalTracker
+{
+	private static final int INTERVALS = TrackingInterval.values().length;
+	private static final int DAY = TrackingInterval.DAY.ordinal();
+	// Number of finished days whose gains are kept for forecasting
+	static final int HISTORY_DAYS = 56;
+
+	// Xp at the start of each interval's current period, -1 until the skill's xp is known
+	private final long[] startXp = new long[INTERVALS];
+	// Epoch day of the period each baseline belongs to
+	private final long[] periodStart = new long[INTERVALS];
+	private long currentXp = -1;
+	// Ring of the xp gained on the last finished days that were tracked, dailyHead is the next slot to write
+	private final int[] dailyGains = new int[HISTORY_DAYS];
+	private int dailyHead;
+	private int dailyCount;
+	// Running surplus, or deficit if negative, of the tracked interval's goals that is carried into the next goal
+	private long carryOverXp;
+	// Per period pace fixed when the balance started, the goal the balance is settled against at rollover.
+	// Kept fixed since a goal recomputed from the current xp already spreads any deficit over the remaining periods
+	private int periodGoalXp;
+	// Observed xp per drop, kept across period resets like the rest of the tracker
+	private final XpActionCatalog actions = new XpActionCatalog();
+
+	XpIntervalTracker(long[] periodStarts)
+	{
+		Arrays.fill(startXp, -1);
+		System.arraycopy(periodStarts, 0, periodStart, 0, INTERVALS);
+	}
+
+	/**
+	 * Records the skill's current xp, every interval derives its gains from this single value.
+	 *
+	 * @param xp Current xp of the skill
+	 */
+	void update(long xp)
+	{
+		currentXp = xp;
+		for (int i = 0; i < INTERVALS; i++)
+		{
+			if (startXp[i] == -1)
+			{
+				startXp[i] = xp;
+			}
+		}
+	}
+
+	/**
+	 * Starts a new baseline at the last known xp for every interval whose period has rolled over.
+	 *
+	 * @param periodStarts Epoch day of the current period start of every interval
+	 */
+	void roll(long[] periodStarts)
+	{
+		for (int i = 0; i < INTERVALS; i++)
+		{
+			if (periodStart[i] != periodStarts[i])
+			{
+				if (i == DAY && startXp[i] != -1 && currentXp != -1)
+				{
+					recordDay(currentXp - startXp[i]);
+					recordIdleDays(periodStarts[i] - periodStart[i] - 1);
+				}
+				periodStart[i] = periodStarts[i];
+				startXp[i] = currentXp;
+			}
+		}
+	}
+
+	private void recordDay(long gained)
+	{
+		dailyGains[dailyHead] = (int) Math.min(Integer.MAX_VALUE, Math.max(0, gained));
+		dailyHead = (dailyHead + 1) % HISTORY_DAYS;
+		dailyCount = Math.min(dailyCount + 1, HISTORY_DAYS);
+	}
+
+	/**
+	 * Records days the tracker wasn't running, eg. days the player didn't log in, as days without xp so the
+	 * history stays one sample per calendar day
+	 */
+	private void recordIdleDays(long days)
+	{
+		for (long i = Math.min(days, HISTORY_DAYS); i > 0; i--)
+		{
+			recordDay(0);
+		}
+	}
+
+	/**
+	 * Xp gained on each of the last finished days since tracking started, oldest first. Days the tracker
+	 * wasn't running count as days without xp.
+	 */
+	int[] getDailyGains()
+	{
+		final int[] gains = new int[dailyCount];
+		final int oldest = (dailyHead - dailyCount + HISTORY_DAYS) % HISTORY_DAYS;
+		for (int i = 0; i < dailyCount; i++)
+		{
+			gains[i] = dailyGains[(oldest + i) % HISTORY_DAYS];
+		}
+		return gains;
+	}
+
+	/**
+	 * Records the xp of a single xp drop in the action catalog
+	 */
+	void recordAction(long xp)
+	{
+		actions.add((int) Math.min(Integer.MAX_VALUE, xp));
+	}
+
+	/**
+	 * Xp of the skill's most frequent xp drop, 0 if none are known
+	 */
+	int getDominantActionXp()
+	{
+		return actions.getDominantXp();
+	}
+
+	long getCarryOverXp()
+	{
+		return carryOverXp;
+	}
+
+	/**
+	 * Goal of the current period in carry over mode, the fixed pace adjusted by the balance
+	 *
+	 * @param requiredXp Goal recomputed from the current xp, fixed as the pace if the balance has none yet
+	 */
+	long getCarryOverGoalXp(int requiredXp)
+	{
+		if (periodGoalXp == 0)
+		{
+			periodGoalXp = requiredXp;
+		}
+		return periodGoalXp - carryOverXp;
+	}
+
+	/**
+	 * Settles ended periods of the tracked interval into the carry over balance
+	 *
+	 * @param gainedXp Xp gained over the ended periods
+	 * @param periods  Number of ended periods, more than one if periods passed while not tracking
+	 */
+	void settleCarryOver(long gainedXp, int periods)
+	{
+		carryOverXp += gainedXp - (long) periodGoalXp * periods;
+	}
+
+	void clearCarryOver()
+	{
+		carryOverXp = 0;
+		periodGoalXp = 0;
+	}
+
+	long getStartXp(TrackingInterval interval)
+	{
+		return startXp[interval.ordinal()];
+	}
+
+	/**
+	 * Copy of the baselines of every interval, by ordinal
+	 */
+	long[] getStartXps()
+	{
+		return startXp.clone();
+	}
+
+	long getXpGained(TrackingInterval interval)
+	{
+		final long start = startXp[interval.ordinal()];
+		return start == -1 || currentXp == -1 ? 0 : currentXp - start;
+	}
+
+	XpIntervalSave save()
+	{
+		XpIntervalSave save = new XpIntervalSave();
+		save.startXp = new EnumMap<>(TrackingInterval.class);
+		save.periodStart = new EnumMap<>(TrackingInterval.class);
+		for (TrackingInterval interval : TrackingInterval.values())
+		{
+			save.startXp.put(interval, startXp[interval.ordinal()]);
+			save.periodStart.put(interval, periodStart[interval.ordinal()]);
+		}
+		save.currentXp = currentXp;
+		save.dailyGains = getDailyGains();
+		save.carryOverXp = carryOverXp;
+		save.periodGoalXp = periodGoalXp;
+		save.actions = actions.save();
+		return save;
+	}
+
+	/**
+	 * Restores saved baselines, dropping those of periods that ended while the tracker was not running.
+	 * Dropped baselines are taken from the next known xp of the skill. The gains of the saved day are added
+	 * to the daily history if that day has ended, followed by a day without xp for every day since.
+	 *
+	 * @param save         Saved tracker
+	 * @param periodStarts Epoch day of the current period start of every interval
+	 */
+	void restore(XpIntervalSave save, long[] periodStarts)
+	{
+		currentXp = save.currentXp;
+		carryOverXp = save.carryOverXp;
+		periodGoalXp = save.periodGoalXp;
+		actions.restore(save.actions);
+		dailyHead = 0;
+		dailyCount = 0;
+		if (save.dailyGains != null)
+		{
+			// Only the most recent days fit the ring
+			for (int i = Math.max(0, save.dailyGains.length - HISTORY_DAYS); i < save.dailyGains.length; i++)
+			{
+				recordDay(save.dailyGains[i]);
+			}
+		}
+
+		final Long savedDayStartXp = save.startXp != null ? save.startXp.get(TrackingInterval.DAY) : null;
+		final Long savedDay = save.periodStart != null ? save.periodStart.get(TrackingInterval.DAY) : null;
+		if (savedDayStartXp != null && savedDay != null && savedDay < periodStarts[DAY] && savedDayStartXp != -1 && currentXp != -1)
+		{
+			recordDay(currentXp - savedDayStartXp);
+			recordIdleDays(periodStarts[DAY] - savedDay - 1);
+		}
+
+		for (TrackingInterval interval : TrackingInterval.values())
+		{
+			final int i = interval.ordinal();
+			final Long savedStartXp = save.startXp != null ? save.startXp.get(interval) : null;
+			final Long savedPeriodStart = save.periodStart != null ? save.periodStart.get(interval) : null;
+			startXp[i] = savedStartXp != null && savedPeriodStart != null && savedPeriodStart == periodStarts[i] ? savedStartXp : -1;
+			periodStart[i] = periodStarts[i];
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.timetomax;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder events around the plugin's hot paths. They are disabled by default, enable them in a
+ * recording with eg. {@code -XX:StartFlightRecording:settings=profile} plus {@code com.timetomax.*#enabled=true}
+ * in a custom .jfc. When disabled, begin/commit are no-ops and the event object is usually scalar replaced.
+ */
+@Enabled(false)
+@StackTrace(false)
+@Category({"RuneLite", "Time to Max"})
+abstract class XpJfrEvent extends Event
+{
+}
+
+@Name("com.timetomax.StatChanged")
+@Label("Stat Changed")
+@Description("Handling of an xp drop")
+class StatChangedJfrEvent extends XpJfrEvent
+{
+	@Label("Skill")
+	String skill;
+
+	@Label("Xp")
+	int xp;
+
+	@Label("Retired")
+	@Description("Whether the skill is maxed and took the fast path")
+	boolean retired;
+}
+
+@Name("com.timetomax.Initialization")
+@Label("Tracker Initialization")
+@Description("Restoring the save and scanning for offline gains after login")
+class InitializationJfrEvent extends XpJfrEvent
+{
+	@Label("Restored Skills")
+	int restoredSkills;
+
+	@Label("Offline Gain Skills")
+	int offlineSkills;
+}
+
+@Name("com.timetomax.TickSkillTimes")
+@Label("Tick Skill Times")
+class TickSkillTimesJfrEvent extends XpJfrEvent
+{
+	@Label("Retired Skills")
+	int retiredSkills;
+
+	@Label("Panel Refreshed")
+	boolean panelRefreshed;
+}
+
+@Name("com.timetomax.StateSave")
+@Label("State Save")
+class StateSaveJfrEvent extends XpJfrEvent
+{
+	@Label("Saved Skills")
+	int skills;
+}
+
+@Name("com.timetomax.TargetPanelUpdate")
+@Label("Target Panel Update")
+class TargetPanelUpdateJfrEvent extends XpJfrEvent
+{
+	@Label("Deferred")
+	@Description("Whether the panel was hidden and the update was kept for later")
+	boolean deferred;
+}
+
+@Name("com.timetomax.InfoBoxRebuild")
+@Label("Info Box Rebuild")
+class InfoBoxRebuildJfrEvent extends XpJfrEvent
+{
+	@Label("Skill")
+	String skill;
+
+	@Label("Updated")
+	boolean updated;
+}
+
+@Name("com.timetomax.OverlayRender")
+@Label("Overlay Render")
+class OverlayRenderJfrEvent extends XpJfrEvent
+{
+	@Label("Skill")
+	String skill;
+}
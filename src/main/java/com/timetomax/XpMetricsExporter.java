@@ -0,0 +1,289 @@
+package com.timetomax;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+
+/**
+ * Opt-in export of skill progress and perf metrics in the Prometheus text format, either written periodically
+ * to a .prom file (eg. for a node exporter textfile collector) or served on a loopback only http port.
+ * <p>
+ * All exporting runs on a single daemon thread that owns the text and byte buffers, so the client thread only
+ * pays for the perf metrics recording that exporting enables.
+ */
+@Slf4j
+@Singleton
+class XpMetricsExporter
+{
+	private static final String DEFAULT_FILE_NAME = "timetomax.prom";
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	// Upper bound in seconds of every latency bucket of XpPerfMetrics, the last bucket is unbounded
+	private static final String[] BUCKET_BOUNDS = new String[XpPerfMetrics.BUCKETS];
+
+	static
+	{
+		for (int i = 0; i < BUCKET_BOUNDS.length - 1; i++)
+		{
+			BUCKET_BOUNDS[i] = BigDecimal.valueOf(1L << (i + 1)).movePointLeft(9).toPlainString();
+		}
+		BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] = "+Inf";
+	}
+
+	private final TimeToMaxConfig config;
+	private final XpProgressPublisher progressPublisher;
+
+	// Only touched by the exporter thread
+	private final StringBuilder text = new StringBuilder(16 * 1024);
+	private byte[] bytes = new byte[16 * 1024];
+
+	private ScheduledExecutorService exporterThread;
+	private HttpServer server;
+
+	@Inject
+	XpMetricsExporter(TimeToMaxConfig config, XpProgressPublisher progressPublisher)
+	{
+		this.config = config;
+		this.progressPublisher = progressPublisher;
+	}
+
+	/**
+	 * Starts exporting as configured, stopping a previous export first
+	 */
+	synchronized void start()
+	{
+		stop();
+
+		final MetricsExportMode mode = config.metricsExport();
+		if (mode == MetricsExportMode.OFF)
+		{
+			return;
+		}
+
+		exporterThread = Executors.newSingleThreadScheduledExecutor(r ->
+		{
+			final Thread thread = new Thread(r, "timetomax-metrics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		XpPerfMetrics.setEnabled(true);
+
+		if (mode == MetricsExportMode.FILE)
+		{
+			final int seconds = Math.max(1, config.metricsExportInterval());
+			exporterThread.scheduleWithFixedDelay(this::writeFile, seconds, seconds, TimeUnit.SECONDS);
+			return;
+		}
+
+		try
+		{
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.metricsExportPort()), 0);
+			server.createContext("/metrics", this::handleScrape);
+			server.setExecutor(exporterThread);
+			server.start();
+			log.debug("Serving metrics on {}", server.getAddress());
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to serve metrics on port {}", config.metricsExportPort(), e);
+			server = null;
+		}
+	}
+
+	synchronized void stop()
+	{
+		if (server != null)
+		{
+			server.stop(0);
+			server = null;
+		}
+		if (exporterThread != null)
+		{
+			exporterThread.shutdownNow();
+			exporterThread = null;
+			XpPerfMetrics.setEnabled(Boolean.getBoolean("timetomax.dev"));
+		}
+	}
+
+	private File exportFile()
+	{
+		final String path = config.metricsExportFile().trim();
+		return path.isEmpty() ? new File(RuneLite.RUNELITE_DIR, DEFAULT_FILE_NAME) : new File(path);
+	}
+
+	private void writeFile()
+	{
+		final File file = exportFile();
+		final File tmp = new File(file.getPath() + ".tmp");
+		try
+		{
+			final int length = render();
+			try (OutputStream out = new FileOutputStream(tmp))
+			{
+				out.write(bytes, 0, length);
+			}
+
+			// Replace the file at once, so collectors never read a partial export
+			try
+			{
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Unable to write metrics to {}", file, e);
+		}
+	}
+
+	private void handleScrape(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			final int length = render();
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(bytes, 0, length);
+			}
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Renders all metrics into the byte buffer
+	 *
+	 * @return Number of bytes rendered
+	 */
+	private int render()
+	{
+		final long perfNanos = XpPerfMetrics.startNanos();
+		text.setLength(0);
+		renderSkills();
+		renderPerf();
+
+		// Metric text is ascii only
+		final int length = text.length();
+		if (bytes.length < length)
+		{
+			bytes = Arrays.copyOf(bytes, Math.max(length, bytes.length * 2));
+		}
+		for (int i = 0; i < length; i++)
+		{
+			bytes[i] = (byte) text.charAt(i);
+		}
+		XpPerfMetrics.recordNanos(XpPerfMetrics.Metric.METRICS_EXPORT, System.nanoTime() - perfNanos);
+		return length;
+	}
+
+	private void renderSkills()
+	{
+		header("timetomax_skill_xp", "Current xp of the skill", "gauge");
+		for (Skill skill : Skill.values())
+		{
+			final XpProgress progress = progressPublisher.getLatest(skill);
+			if (progress != null)
+			{
+				skillSample("timetomax_skill_xp", skill).append(progress.getCurrentXp()).append('\n');
+			}
+		}
+
+		header("timetomax_skill_xp_gained", "Xp gained in the current interval", "gauge");
+		for (Skill skill : Skill.values())
+		{
+			final XpProgress progress = progressPublisher.getLatest(skill);
+			if (progress != null)
+			{
+				skillSample("timetomax_skill_xp_gained", skill).append(progress.getXpGained()).append('\n');
+			}
+		}
+
+		header("timetomax_skill_xp_per_hour", "Xp per hour of the skill", "gauge");
+		for (Skill skill : Skill.values())
+		{
+			final XpProgress progress = progressPublisher.getLatest(skill);
+			if (progress != null)
+			{
+				skillSample("timetomax_skill_xp_per_hour", skill).append(progress.getXpPerHour()).append('\n');
+			}
+		}
+
+		header("timetomax_skill_goal_progress", "Progress towards the interval goal, 1 when completed", "gauge");
+		for (Skill skill : Skill.values())
+		{
+			final XpProgress progress = progressPublisher.getLatest(skill);
+			if (progress != null)
+			{
+				final int goalXp = progress.getEndGoalXp() - progress.getStartGoalXp();
+				final double ratio = goalXp <= 0 ? 0 : Math.min(1.0, (double) progress.getXpGained() / goalXp);
+				skillSample("timetomax_skill_goal_progress", skill).append(ratio).append('\n');
+			}
+		}
+	}
+
+	private StringBuilder skillSample(String name, Skill skill)
+	{
+		return text.append(name).append("{skill=\"").append(skill.getName()).append("\"} ");
+	}
+
+	private void renderPerf()
+	{
+		header("timetomax_handler_duration_seconds", "Latency of event handlers, scheduled tasks, saves and EDT work", "histogram");
+		XpPerfMetrics.forEachSummary(summary ->
+		{
+			final String handler = summary.getMetric().getDisplayName();
+			final long[] buckets = summary.getBuckets();
+			long cumulative = 0;
+			for (int i = 0; i < buckets.length; i++)
+			{
+				cumulative += buckets[i];
+				text.append("timetomax_handler_duration_seconds_bucket{handler=\"").append(handler)
+					.append("\",le=\"").append(BUCKET_BOUNDS[i]).append("\"} ").append(cumulative).append('\n');
+			}
+			text.append("timetomax_handler_duration_seconds_sum{handler=\"").append(handler).append("\"} ")
+				.append(summary.getTotalNanos() / 1e9).append('\n');
+			text.append("timetomax_handler_duration_seconds_count{handler=\"").append(handler).append("\"} ")
+				.append(summary.getCount()).append('\n');
+		});
+
+		header("timetomax_handler_allocated_bytes", "Average bytes allocated per call, if measured", "gauge");
+		XpPerfMetrics.forEachSummary(summary ->
+		{
+			if (summary.getBytesPerCall() >= 0)
+			{
+				text.append("timetomax_handler_allocated_bytes{handler=\"").append(summary.getMetric().getDisplayName())
+					.append("\"} ").append(summary.getBytesPerCall()).append('\n');
+			}
+		});
+	}
+
+	private void header(String name, String help, String type)
+	{
+		text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+}
@@ -26,15 +26,22 @@
 package com.timetomax;
 
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.GridLayout;
-import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
@@ -47,6 +54,7 @@ import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.util.Date;
@@ -63,15 +71,20 @@ import net.runelite.client.ui.PluginPanel;
 import net.runelite.client.ui.components.DragAndDropReorderPane;
 import net.runelite.client.ui.components.PluginErrorPanel;
 import net.runelite.client.util.ImageUtil;
+import net.runelite.client.util.QuantityFormatter;
 
 @Slf4j
 class XpPanel extends PluginPanel
 {
-	private final Map<Skill, XpInfoBox> infoBoxes = new HashMap<>();
+	// Info boxes are only created once a skill first gains xp, so maxed skills never allocate one
+	private final Map<Skill, XpInfoBox> infoBoxes = new EnumMap<>(Skill.class);
 	private final JLabel overallExpGained = new JLabel(XpInfoBox.htmlLabel("Gained: ", 0));
 	private final JLabel overallExpHour = new JLabel(XpInfoBox.htmlLabel("Per hour: ", 0));
 
 	private final JPanel overallPanel = new JPanel();
+	private final JPanel overallInfo = new JPanel();
+	// Summary of the last ended session, only added to the overall panel once there is one
+	private final JLabel lastSessionLabel = new JLabel();
 
 	// New panel for target XP information
 	private final JPanel targetPanel = new JPanel();
@@ -80,9 +93,19 @@ class XpPanel extends PluginPanel
 	private final JLabel targetIntervalLabel = new JLabel(XpInfoBox.htmlLabel("Tracking: ", ""));
 	private final JLabel intervalsRemainingLabel = new JLabel(XpInfoBox.htmlLabel("Intervals remaining: ", ""));
 	private final JLabel xpOverrideLabel = new JLabel(XpInfoBox.htmlLabel("Daily Xp: ", ""));
+	// Monte Carlo max date forecast, only shown once there is enough daily history
+	private final JLabel forecastLabel = new JLabel();
+	private final JLabel forecastRangeLabel = new JLabel();
+	// Latest forecast, null until there is enough history. EDT only
+	private XpForecast forecast;
+	// Skills furthest behind their interval goal, hidden while there are none
+	private final JPanel trainNextPanel = new JPanel();
+	private final XpHeatmapPanel heatmapPanel = new XpHeatmapPanel();
 	// Dev-only label showing the effective wall clock (real or overridden). Only added to the
 	// panel when -Dtimetomax.dev=true was passed to the JVM.
 	private final JLabel devTimeLabel = new JLabel();
+	// Dev-only live summary of XpPerfMetrics
+	private final JLabel devPerfLabel = new JLabel();
 	private static final boolean DEV_MODE = Boolean.getBoolean("timetomax.dev");
 	private static final java.time.format.DateTimeFormatter DEV_TIME_FORMAT =
 		java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -100,6 +123,36 @@ class XpPanel extends PluginPanel
 	private boolean configExpanded = false;
 	private final ConfigManager configManager;
 
+	// Spinner edits are coalesced so holding an arrow writes the config once, after the value settles. EDT only
+	private static final int CONFIG_WRITE_DELAY_MS = 300;
+	private final Map<String, String> pendingConfigWrites = new HashMap<>();
+	private final Timer configWriteTimer = new Timer(CONFIG_WRITE_DELAY_MS, e -> flushConfigWrites());
+
+	// Whether the navigation panel is currently open. While it is closed no Swing work is done, only the
+	// latest snapshots are kept so that reopening the panel renders a single catch-up frame.
+	private boolean active = false;
+	private final Map<Skill, XpSnapshotSingle> pendingSnapshots = new EnumMap<>(Skill.class);
+	private final Set<Skill> pendingUpdated = EnumSet.noneOf(Skill.class);
+	private final Set<Skill> pendingPaused = EnumSet.noneOf(Skill.class);
+	private XpSnapshotSingle pendingTotal;
+	private TimeToMaxConfig pendingTargetConfig;
+	private List<XpRecommendation> pendingRecommendations;
+	private int[][] pendingHeatmap;
+	// The pending session may be null to hide the last session, so whether one is queued is kept apart
+	private XpSession pendingSession;
+	private boolean pendingSessionQueued;
+
+	// Info boxes are ordered in a single pass after a burst of updates instead of each box moving itself
+	private final JComponent infoBoxPanel = new DragAndDropReorderPane();
+	private final AtomicBoolean reorderQueued = new AtomicBoolean();
+	// Skills that gained xp since the last ordering pass, most recent last, moved to the top when recently
+	// trained skills are prioritized. Every other box keeps the order the user dragged it into
+	private final Set<Skill> movedToTop = new LinkedHashSet<>();
+	private int lastInfoBoxCount = 0;
+	private final TimeToMaxPlugin plugin;
+	private final TimeToMaxConfig config;
+	private final SkillIconManager iconManager;
+
 	/* This displays the "track xp" text */
 	private final PluginErrorPanel errorPanel = new PluginErrorPanel();
 	/**
@@ -145,10 +198,11 @@ class XpPanel extends PluginPanel
 			targetDateSpinner.setValue(new Date());
 		}
 
+		configWriteTimer.setRepeats(false);
 		targetDateSpinner.addChangeListener(e -> {
 			Date selectedDate = (Date) targetDateSpinner.getValue();
 			LocalDate localDate = selectedDate.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
-			updateConfigValue("targetDate", localDate.toString());
+			queueConfigWrite("targetDate", localDate.toString());
 		});
 
 		configContentPanel.add(targetDateSpinner);
@@ -178,12 +232,12 @@ class XpPanel extends PluginPanel
 		configContentPanel.add(xpOverride);
 
 		// If Max Skill Mode is Xp Override, then show xp Override
+		xpOverrideInput.setValue(config.minimumXpOverride());
+		xpOverrideInput.addChangeListener(e -> queueConfigWrite("minimumXpOverride", xpOverrideInput.getValue().toString()));
 		if (config.xpOverride())
 		{
 			configContentPanel.setLayout(new GridLayout(6, 2, 5, 5));
 			configContentPanel.add(xpOverrideLabel);
-			xpOverrideInput.setValue(config.minimumXpOverride());
-			xpOverrideInput.addChangeListener(e -> updateConfigValue("minimumXpOverride", xpOverrideInput.getValue().toString()));
 			configContentPanel.add(xpOverrideInput);
 		}
 
@@ -233,11 +287,30 @@ class XpPanel extends PluginPanel
 		}
 	}
 
+	/**
+	 * Queues a config write, restarting the delay so only the last value of a burst of edits is written
+	 */
+	private void queueConfigWrite(String key, String value)
+	{
+		pendingConfigWrites.put(key, value);
+		configWriteTimer.restart();
+	}
+
+	private void flushConfigWrites()
+	{
+		Map<String, String> writes = new HashMap<>(pendingConfigWrites);
+		pendingConfigWrites.clear();
+		writes.forEach(this::updateConfigValue);
+	}
+
 	XpPanel(TimeToMaxPlugin timeToMaxPlugin, TimeToMaxConfig timeToMaxConfig, Client client, SkillIconManager iconManager)
 	{
 		super();
 
 		this.configManager = timeToMaxPlugin.getInjectedConfigManager();
+		this.plugin = timeToMaxPlugin;
+		this.config = timeToMaxConfig;
+		this.iconManager = iconManager;
 
 		setBorder(new EmptyBorder(6, 6, 6, 6));
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -280,9 +353,8 @@ class XpPanel extends PluginPanel
 
 		final JLabel overallIcon = new JLabel(new ImageIcon(ImageUtil.loadImageResource(getClass(), "/skill_icons/overall.png")));
 
-		final JPanel overallInfo = new JPanel();
 		overallInfo.setBackground(ColorScheme.DARKER_GRAY_COLOR);
-		overallInfo.setLayout(new GridLayout(2, 1));
+		overallInfo.setLayout(new GridLayout(0, 1));
 		overallInfo.setBorder(new EmptyBorder(0, 10, 0, 0));
 		// Initialize the target panel
 		targetPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -295,11 +367,16 @@ class XpPanel extends PluginPanel
 		intervalsRemainingLabel.setFont(FontManager.getRunescapeSmallFont());
 		devTimeLabel.setFont(FontManager.getRunescapeSmallFont());
 		devTimeLabel.setForeground(java.awt.Color.ORANGE);
+		devPerfLabel.setFont(FontManager.getRunescapeSmallFont());
+		devPerfLabel.setForeground(java.awt.Color.ORANGE);
+		forecastLabel.setFont(FontManager.getRunescapeSmallFont());
+		forecastRangeLabel.setFont(FontManager.getRunescapeSmallFont());
 
 		if (DEV_MODE)
 		{
-			targetPanel.setLayout(new GridLayout(5, 1));
+			targetPanel.setLayout(new GridLayout(6, 1));
 			targetPanel.add(devTimeLabel);
+			targetPanel.add(devPerfLabel);
 		}
 		targetPanel.add(targetDateLabel);
 		targetPanel.add(targetIntervalLabel);
@@ -310,15 +387,21 @@ class XpPanel extends PluginPanel
 
 		overallExpGained.setFont(FontManager.getRunescapeSmallFont());
 		overallExpHour.setFont(FontManager.getRunescapeSmallFont());
+		lastSessionLabel.setFont(FontManager.getRunescapeSmallFont());
 
 		overallInfo.add(overallExpGained);
 		overallInfo.add(overallExpHour);
 		overallPanel.add(overallIcon, BorderLayout.WEST);
 		overallPanel.add(overallInfo, BorderLayout.CENTER);
 
-		final JComponent infoBoxPanel = new DragAndDropReorderPane();
+		trainNextPanel.setBorder(new EmptyBorder(0, 10, 10, 10));
+		trainNextPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		trainNextPanel.setVisible(false);
+
 		// Add target panel to layout
 		layoutPanel.add(targetPanel);
+		layoutPanel.add(trainNextPanel);
+		layoutPanel.add(heatmapPanel);
 		
 		// Add config panel to layout
 		layoutPanel.add(configPanel);
@@ -332,11 +415,11 @@ class XpPanel extends PluginPanel
 
 		layoutPanel.add(overallPanel);
 		layoutPanel.add(infoBoxPanel);
+	}
 
-		for (Skill skill : Skill.values())
-		{
-			infoBoxes.put(skill, new XpInfoBox(timeToMaxPlugin, timeToMaxConfig, infoBoxPanel, skill, iconManager));
-		}
+	private XpInfoBox createInfoBox(Skill skill)
+	{
+		return new XpInfoBox(plugin, config, this, infoBoxPanel, skill, iconManager);
 	}
 
 	void showOverallPanel()
@@ -344,24 +427,292 @@ class XpPanel extends PluginPanel
 		overallPanel.setVisible(true);
 	}
 
+	@Override
+	public void onActivate()
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.PANEL_CATCH_UP, this::catchUp);
+	}
+
+	private void catchUp()
+	{
+		synchronized (pendingSnapshots)
+		{
+			active = true;
+
+			// Replay only the latest state of every skill that changed while the panel was closed
+			for (Map.Entry<Skill, XpSnapshotSingle> entry : pendingSnapshots.entrySet())
+			{
+				final Skill skill = entry.getKey();
+				final boolean updated = pendingUpdated.contains(skill);
+				final XpInfoBox xpInfoBox = updated ? infoBoxes.computeIfAbsent(skill, this::createInfoBox) : infoBoxes.get(skill);
+				if (xpInfoBox != null)
+				{
+					xpInfoBox.update(updated, pendingPaused.contains(skill), entry.getValue(), false);
+				}
+			}
+			pendingSnapshots.clear();
+			pendingUpdated.clear();
+			pendingPaused.clear();
+
+			if (pendingTotal != null)
+			{
+				rebuildTotal(pendingTotal);
+				pendingTotal = null;
+			}
+
+			if (pendingTargetConfig != null)
+			{
+				rebuildTargetPanel(pendingTargetConfig);
+				pendingTargetConfig = null;
+			}
+
+			if (pendingRecommendations != null)
+			{
+				rebuildTrainNext(pendingRecommendations);
+				pendingRecommendations = null;
+			}
+
+			if (pendingHeatmap != null)
+			{
+				heatmapPanel.update(pendingHeatmap);
+				pendingHeatmap = null;
+			}
+
+			if (pendingSessionQueued)
+			{
+				rebuildLastSession(pendingSession);
+				pendingSession = null;
+				pendingSessionQueued = false;
+			}
+		}
+	}
+
+	@Override
+	public void onDeactivate()
+	{
+		synchronized (pendingSnapshots)
+		{
+			active = false;
+			infoBoxes.values().forEach(XpInfoBox::clearPaintTrace);
+		}
+	}
+
 	void resetAllInfoBoxes()
 	{
-		infoBoxes.forEach((skill, xpInfoBox) -> xpInfoBox.reset());
+		synchronized (pendingSnapshots)
+		{
+			pendingSnapshots.clear();
+			pendingUpdated.clear();
+			pendingPaused.clear();
+			movedToTop.clear();
+			infoBoxes.forEach((skill, xpInfoBox) -> xpInfoBox.reset());
+		}
 	}
 
 	void resetSkill(Skill skill)
 	{
-		final XpInfoBox xpInfoBox = infoBoxes.get(skill);
-		xpInfoBox.reset();
+		final XpInfoBox xpInfoBox;
+		synchronized (pendingSnapshots)
+		{
+			pendingSnapshots.remove(skill);
+			pendingUpdated.remove(skill);
+			pendingPaused.remove(skill);
+			movedToTop.remove(skill);
+			xpInfoBox = infoBoxes.get(skill);
+		}
+
+		if (xpInfoBox != null)
+		{
+			xpInfoBox.reset();
+		}
 	}
 
+	/**
+	 * Shows a skill's state after an xp drop when updated, moving its box to the top if recently trained skills
+	 * are prioritized
+	 */
 	void updateSkillExperience(boolean updated, boolean paused, Skill skill, XpSnapshotSingle xpSnapshotSingle)
 	{
-		final XpInfoBox xpInfoBox = infoBoxes.get(skill);
-		xpInfoBox.update(updated, paused, xpSnapshotSingle);
+		updateSkillExperience(updated, updated, paused, skill, xpSnapshotSingle);
+	}
+
+	/**
+	 * Shows a skill's recalculated or restored state without counting it as trained, so its box keeps its place
+	 */
+	void rebuildSkillExperience(boolean paused, Skill skill, XpSnapshotSingle xpSnapshotSingle)
+	{
+		updateSkillExperience(true, false, paused, skill, xpSnapshotSingle);
+	}
+
+	private void updateSkillExperience(boolean updated, boolean trained, boolean paused, Skill skill, XpSnapshotSingle xpSnapshotSingle)
+	{
+		synchronized (pendingSnapshots)
+		{
+			if (trained)
+			{
+				movedToTop.remove(skill);
+				movedToTop.add(skill);
+			}
+			else if (!updated && !infoBoxes.containsKey(skill) && !pendingUpdated.contains(skill))
+			{
+				// Skill hasn't gained xp yet, there is nothing to refresh
+				return;
+			}
+
+			if (!active)
+			{
+				pendingSnapshots.put(skill, xpSnapshotSingle);
+				if (updated)
+				{
+					pendingUpdated.add(skill);
+				}
+				if (paused)
+				{
+					pendingPaused.add(skill);
+				}
+				else
+				{
+					pendingPaused.remove(skill);
+				}
+				return;
+			}
+		}
+
+		// Info boxes are Swing components, so they are looked up and created on the EDT
+		SwingUtilities.invokeLater(() ->
+		{
+			final XpInfoBox xpInfoBox = updated ? getOrCreateInfoBox(skill) : getInfoBox(skill);
+			if (xpInfoBox != null)
+			{
+				xpInfoBox.updateNow(updated, paused, xpSnapshotSingle, true);
+			}
+		});
+	}
+
+	private XpInfoBox getInfoBox(Skill skill)
+	{
+		synchronized (pendingSnapshots)
+		{
+			return infoBoxes.get(skill);
+		}
+	}
+
+	/**
+	 * Gets the info box of a skill, creating it on first use. EDT only
+	 */
+	private XpInfoBox getOrCreateInfoBox(Skill skill)
+	{
+		final XpInfoBox existing = getInfoBox(skill);
+		if (existing != null)
+		{
+			return existing;
+		}
+
+		final XpInfoBox xpInfoBox = createInfoBox(skill);
+		synchronized (pendingSnapshots)
+		{
+			infoBoxes.put(skill, xpInfoBox);
+		}
+		return xpInfoBox;
+	}
+
+	/**
+	 * Queues a single ordering pass of the info boxes. Called on the EDT by info boxes after an update, so
+	 * the pass runs after every update already queued in the same burst.
+	 */
+	void queueReorder()
+	{
+		if (reorderQueued.compareAndSet(false, true))
+		{
+			SwingUtilities.invokeLater(this::reorderInfoBoxes);
+		}
+	}
+
+	private void reorderInfoBoxes()
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.INFO_BOX_REORDER, this::reorder);
+	}
+
+	private void reorder()
+	{
+		reorderQueued.set(false);
+
+		final int count = infoBoxPanel.getComponentCount();
+		boolean changed = count != lastInfoBoxCount;
+		lastInfoBoxCount = count;
+
+		final List<Skill> trained;
+		synchronized (pendingSnapshots)
+		{
+			trained = new ArrayList<>(movedToTop);
+			movedToTop.clear();
+		}
+
+		final boolean pinCompleted = config.pinCompletedSkillsToBottom();
+		final boolean prioritizeRecent = config.prioritizeRecentXpSkills() && !trained.isEmpty();
+		if (pinCompleted || prioritizeRecent)
+		{
+			final List<XpInfoBox> boxes = new ArrayList<>(count);
+			for (Component component : infoBoxPanel.getComponents())
+			{
+				if (component instanceof XpInfoBox)
+				{
+					boxes.add((XpInfoBox) component);
+				}
+			}
+
+			if (prioritizeRecent)
+			{
+				// Most recently trained first, like each box moving itself to the top as it gains xp
+				for (Skill skill : trained)
+				{
+					final XpInfoBox box = getInfoBox(skill);
+					if (box != null && boxes.remove(box))
+					{
+						boxes.add(0, box);
+					}
+				}
+			}
+
+			if (pinCompleted)
+			{
+				// The sort is stable, so completed and open skills each keep their order
+				boxes.sort((a, b) -> Boolean.compare(a.isCompleted(), b.isCompleted()));
+			}
+
+			// Everything before i is already in place, so each box is only moved if it is out of place
+			for (int i = 0; i < boxes.size(); i++)
+			{
+				final XpInfoBox box = boxes.get(i);
+				if (infoBoxPanel.getComponent(i) != box)
+				{
+					infoBoxPanel.setComponentZOrder(box, i);
+					changed = true;
+				}
+			}
+		}
+
+		if (changed)
+		{
+			infoBoxPanel.revalidate();
+		}
 	}
 
 	void updateTotal(XpSnapshotSingle xpSnapshotTotal)
+	{
+		synchronized (pendingSnapshots)
+		{
+			if (!active)
+			{
+				pendingTotal = xpSnapshotTotal;
+				return;
+			}
+		}
+
+		rebuildTotal(xpSnapshotTotal);
+	}
+
+	private void rebuildTotal(XpSnapshotSingle xpSnapshotTotal)
 	{
 		// if player has gained exp and hasn't switched displays yet, hide error panel and show overall info
 		if (xpSnapshotTotal.getXpGainedInSession() > 0 && !overallPanel.isVisible())
@@ -384,6 +735,82 @@ class XpPanel extends PluginPanel
 		overallExpHour.setText(XpInfoBox.htmlLabel("Per hour: ", xpSnapshotTotal.getXpPerHour()));
 	}
 
+	/**
+	 * Shows new hour of the week bins, by Skill ordinal. Can be called from any thread.
+	 */
+	void updateHeatmap(int[][] bins)
+	{
+		synchronized (pendingSnapshots)
+		{
+			if (!active)
+			{
+				pendingHeatmap = bins;
+				return;
+			}
+		}
+
+		SwingUtilities.invokeLater(() -> heatmapPanel.update(bins));
+	}
+
+	/**
+	 * Shows a summary of the last ended session, or hides it if null. Can be called from any thread.
+	 */
+	void updateLastSession(XpSession session)
+	{
+		synchronized (pendingSnapshots)
+		{
+			if (!active)
+			{
+				pendingSession = session;
+				pendingSessionQueued = true;
+				return;
+			}
+		}
+
+		SwingUtilities.invokeLater(() -> rebuildLastSession(session));
+	}
+
+	private void rebuildLastSession(XpSession session)
+	{
+		overallInfo.remove(lastSessionLabel);
+		if (session != null)
+		{
+			final Duration length = Duration.ofMillis(session.getEndMillis() - session.getStartMillis());
+			lastSessionLabel.setText(XpInfoBox.htmlLabel("Last session: ",
+				QuantityFormatter.quantityToRSDecimalStack((int) Math.min(Integer.MAX_VALUE, session.getTotalXp()), true)
+					+ " in " + formatSessionLength(length)));
+			lastSessionLabel.setToolTipText(sessionTooltip(session));
+			overallInfo.add(lastSessionLabel);
+		}
+		overallInfo.revalidate();
+		overallInfo.repaint();
+	}
+
+	private static String formatSessionLength(Duration length)
+	{
+		final long hours = length.toHours();
+		final long minutes = length.toMinutes() % 60;
+		return hours > 0 ? hours + "h " + minutes + "m" : Math.max(1, minutes) + "m";
+	}
+
+	private static String sessionTooltip(XpSession session)
+	{
+		final StringBuilder sb = new StringBuilder("<html>")
+			.append("Active for ").append(formatSessionLength(Duration.ofMillis(session.getActiveMillis())))
+			.append(", ").append(QuantityFormatter.quantityToRSDecimalStack(session.getXpPerHour(), true)).append(" xp/hr");
+		for (Skill skill : Skill.values())
+		{
+			final int xp = session.getXp(skill);
+			if (xp > 0)
+			{
+				sb.append("<br>").append(skill.getName()).append(": ")
+					.append(QuantityFormatter.quantityToRSDecimalStack(xp, true)).append(" xp, ")
+					.append(QuantityFormatter.quantityToRSDecimalStack(session.getXpPerHour(skill), true)).append(" xp/hr");
+			}
+		}
+		return sb.append("</html>").toString();
+	}
+
 	private static String formatOffset(Duration off)
 	{
 		long secs = off.getSeconds();
@@ -402,9 +829,124 @@ class XpPanel extends PluginPanel
 	}
 
 	/**
-	 * Updates the target panel with the current configuration values
+	 * p99 latency of xp drops, the per second tick and info box rebuilds, for the dev panel
+	 */
+	private static String devPerfSummary()
+	{
+		return "xp " + formatMicros(XpPerfMetrics.summary(XpPerfMetrics.Metric.STAT_CHANGED).getP99Nanos())
+			+ ", tick " + formatMicros(XpPerfMetrics.summary(XpPerfMetrics.Metric.TICK_SKILL_TIMES).getP99Nanos())
+			+ ", edt " + formatMicros(XpPerfMetrics.summary(XpPerfMetrics.Metric.INFO_BOX_REBUILD).getP99Nanos());
+	}
+
+	static String formatMicros(long nanos)
+	{
+		return nanos >= 10_000_000 ? (nanos / 1_000_000) + "ms" : (nanos / 1_000) + "us";
+	}
+
+	/**
+	 * Updates the target panel with the current configuration values. Can be called from any thread, the panel
+	 * and the config controls it refreshes are rebuilt on the EDT.
 	 */
 	void updateTargetPanel(TimeToMaxConfig config)
+	{
+		XpPerfMetrics.time(XpPerfMetrics.Metric.TARGET_PANEL, () -> queueTargetPanel(config));
+	}
+
+	private void queueTargetPanel(TimeToMaxConfig config)
+	{
+		final TargetPanelUpdateJfrEvent jfrEvent = new TargetPanelUpdateJfrEvent();
+		jfrEvent.begin();
+		synchronized (pendingSnapshots)
+		{
+			if (!active)
+			{
+				pendingTargetConfig = config;
+				jfrEvent.deferred = true;
+				jfrEvent.commit();
+				return;
+			}
+		}
+
+		if (SwingUtilities.isEventDispatchThread())
+		{
+			rebuildTargetPanel(config);
+		}
+		else
+		{
+			SwingUtilities.invokeLater(() -> rebuildTargetPanel(config));
+		}
+		jfrEvent.commit();
+	}
+
+	/**
+	 * Shows a new max date forecast, or hides the forecast if null. Can be called from any thread.
+	 */
+	void updateForecast(XpForecast forecast)
+	{
+		SwingUtilities.invokeLater(() ->
+		{
+			this.forecast = forecast;
+			updateTargetPanel(config);
+		});
+	}
+
+	/**
+	 * Lists the skills furthest behind their interval goal. Can be called from any thread.
+	 */
+	void updateRecommendations(List<XpRecommendation> recommendations)
+	{
+		synchronized (pendingSnapshots)
+		{
+			if (!active)
+			{
+				pendingRecommendations = recommendations;
+				return;
+			}
+		}
+
+		SwingUtilities.invokeLater(() -> rebuildTrainNext(recommendations));
+	}
+
+	private void rebuildTrainNext(List<XpRecommendation> recommendations)
+	{
+		final int count = Math.min(config.trainNextSkills(), recommendations.size());
+		trainNextPanel.removeAll();
+		trainNextPanel.setVisible(count > 0);
+		if (count == 0)
+		{
+			return;
+		}
+
+		// Every skill shares the time left in the period
+		final TrackingInterval interval = config.trackingInterval();
+		final LocalDateTime periodEnd = LocalDate.ofEpochDay(
+			XpIntervalCalendar.nextPeriodStartOf(interval, XpCalculator.today().toEpochDay())).atStartOfDay();
+		final double hoursLeft = Math.max(1, Duration.between(XpCalculator.now(), periodEnd).toMinutes()) / 60.0;
+
+		trainNextPanel.setLayout(new GridLayout(count + 1, 1));
+		final JLabel title = new JLabel("Train next");
+		title.setFont(FontManager.getRunescapeSmallFont());
+		trainNextPanel.add(title);
+		for (int i = 0; i < count; i++)
+		{
+			final XpRecommendation recommendation = recommendations.get(i);
+			final JLabel label = new JLabel(XpInfoBox.htmlLabel(recommendation.getSkill().getName() + ": ",
+				QuantityFormatter.quantityToStackSize(recommendation.getDeficitXp()) + " xp, " + recommendation.getTimeNeeded()));
+			label.setFont(FontManager.getRunescapeSmallFont());
+			label.setToolTipText(String.format("Needs %.0f%% of the time left in this %s at your current rate",
+				recommendation.getHoursNeeded() / hoursLeft * 100, interval.getUnit()));
+			trainNextPanel.add(label);
+		}
+		trainNextPanel.revalidate();
+		trainNextPanel.repaint();
+	}
+
+	private static String forecastDate(LocalDate date)
+	{
+		return date == null ? "Over 10 years" : date.toString();
+	}
+
+	private void rebuildTargetPanel(TimeToMaxConfig config)
 	{
 		try
 		{
@@ -425,6 +967,7 @@ class XpPanel extends PluginPanel
 				Duration off = XpCalculator.getTimeOffset();
 				String offText = off.isZero() ? "no offset" : formatOffset(off);
 				devTimeLabel.setText(XpInfoBox.htmlLabel("Dev clock: ", DEV_TIME_FORMAT.format(currentTime) + " [" + offText + "]"));
+				devPerfLabel.setText(XpInfoBox.htmlLabel("Perf p99: ", devPerfSummary()));
 			}
 
 			if (config.xpOverride())
@@ -437,36 +980,14 @@ class XpPanel extends PluginPanel
 				targetDate = LocalDate.parse(config.targetDate());
 			}
 
-			switch (interval)
-			{
-				case DAY:
-					intervalUnit = "Day";
-					currentIntervalLabel = "day";
-					intervalsRemaining = ChronoUnit.DAYS.between(now, targetDate);
-					nextIntervalEnd = currentTime.toLocalDate().atTime(23, 59, 59);
-					break;
-				case WEEK:
-					intervalUnit = "Week";
-					currentIntervalLabel = "week";
-					intervalsRemaining = ChronoUnit.WEEKS.between(now, targetDate);
-					// End of week (Sunday 23:59:59)
-					int daysUntilEndOfWeek = DayOfWeek.SUNDAY.getValue() - currentTime.getDayOfWeek().getValue();
-					if (daysUntilEndOfWeek < 0) daysUntilEndOfWeek += 7;
-					nextIntervalEnd = currentTime.toLocalDate().plusDays(daysUntilEndOfWeek).atTime(23, 59, 59);
-					break;
-				case MONTH:
-					intervalUnit = "Month";
-					currentIntervalLabel = "month";
-					intervalsRemaining = ChronoUnit.MONTHS.between(now.withDayOfMonth(1), targetDate.withDayOfMonth(1));
-					LocalDate lastDayOfMonth = currentTime.toLocalDate().withDayOfMonth(currentTime.toLocalDate().lengthOfMonth());
-					nextIntervalEnd = lastDayOfMonth.atTime(23, 59, 59);
-					break;
-				default:
-					intervalUnit = "Interval";
-					currentIntervalLabel = "interval";
-					intervalsRemaining = Math.max(0, ChronoUnit.DAYS.between(now, targetDate));
-					nextIntervalEnd = currentTime.plusDays(1).withHour(23).withMinute(59).withSecond(59);
-			}
+			// Period boundaries come from the precomputed calendar, the period ends the second before the next starts
+			final XpIntervalCalendar calendar = XpCalculator.getCalendar(interval, targetDate.toEpochDay());
+			final long today = now.toEpochDay();
+			final String units = interval.getUnits();
+			intervalUnit = Character.toUpperCase(units.charAt(0)) + units.substring(1);
+			currentIntervalLabel = interval.getUnit();
+			intervalsRemaining = calendar.getPeriodsRemaining(today, targetDate.toEpochDay());
+			nextIntervalEnd = LocalDate.ofEpochDay(calendar.getNextPeriodStart(today)).atStartOfDay().minusSeconds(1);
 
 			Duration duration = Duration.between(currentTime, nextIntervalEnd);
 			long totalSeconds = duration.getSeconds();
@@ -508,7 +1029,7 @@ class XpPanel extends PluginPanel
 			targetDateLabel.setText(XpInfoBox.htmlLabel("Target Date: ", targetDate.toString()));
 			targetIntervalLabel.setText(XpInfoBox.htmlLabel("Tracking: ", "Per " + interval.toString().toLowerCase()));
 
-			String intervalsRemainingText = intervalUnit + "s remaining to goal: ";
+			String intervalsRemainingText = intervalUnit + " remaining to goal: ";
 			String timeLeftText = "Time left in current " + currentIntervalLabel + ": ";
 
 			intervalsRemainingLabel.setText(XpInfoBox.htmlLabel(intervalsRemainingText, String.valueOf(intervalsRemaining)));
@@ -516,15 +1037,28 @@ class XpPanel extends PluginPanel
 			timeLeftLabel.setFont(FontManager.getRunescapeSmallFont());
 
 			targetPanel.removeAll();
+			targetPanel.setLayout(new GridLayout(4 + (DEV_MODE ? 2 : 0) + (forecast != null ? 2 : 0), 1));
 			if (DEV_MODE)
 			{
-				targetPanel.setLayout(new GridLayout(5, 1));
 				targetPanel.add(devTimeLabel);
+				targetPanel.add(devPerfLabel);
 			}
 			targetPanel.add(targetDateLabel);
 			targetPanel.add(targetIntervalLabel);
 			targetPanel.add(intervalsRemainingLabel);
 			targetPanel.add(timeLeftLabel);
+			if (forecast != null)
+			{
+				forecastLabel.setText(XpInfoBox.htmlLabel("Max forecast: ", forecastDate(forecast.getP50())));
+				forecastRangeLabel.setText(XpInfoBox.htmlLabel("P10 - P90: ",
+					forecastDate(forecast.getP10()) + " - " + forecastDate(forecast.getP90())));
+				final String tooltip = "Median and range of " + XpForecaster.PATHS + " simulated paths, drawn from the xp of the last "
+					+ forecast.getHistoryDays() + " tracked days";
+				forecastLabel.setToolTipText(tooltip);
+				forecastRangeLabel.setToolTipText(tooltip);
+				targetPanel.add(forecastLabel);
+				targetPanel.add(forecastRangeLabel);
+			}
 			targetPanel.setVisible(true);
 			targetPanel.revalidate();
 			targetPanel.repaint();
@@ -554,9 +1088,17 @@ class XpPanel extends PluginPanel
 		try {
 			// Update all config controls to reflect current values
 			try {
-				LocalDate configDate = LocalDate.parse(config.targetDate());
-				Date date = Date.from(configDate.atStartOfDay().atZone(java.time.ZoneId.systemDefault()).toInstant());
-				targetDateSpinner.setValue(date);
+				// Spinners with an edit still waiting to be written keep the value the user is entering
+				if (!pendingConfigWrites.containsKey("targetDate"))
+				{
+					LocalDate configDate = LocalDate.parse(config.targetDate());
+					Date date = Date.from(configDate.atStartOfDay().atZone(java.time.ZoneId.systemDefault()).toInstant());
+					targetDateSpinner.setValue(date);
+				}
+				if (!pendingConfigWrites.containsKey("minimumXpOverride"))
+				{
+					xpOverrideInput.setValue(config.minimumXpOverride());
+				}
 
 				// Only add xpOverride controls if not already present and mode is XP_OVERRIDE
 				if (config.xpOverride())
@@ -565,8 +1107,6 @@ class XpPanel extends PluginPanel
 					{
 						configContentPanel.setLayout(new GridLayout(6, 2, 5, 5));
 						configContentPanel.add(xpOverrideLabel);
-						xpOverrideInput.setValue(config.minimumXpOverride());
-						xpOverrideInput.addChangeListener(e -> updateConfigValue("minimumXpOverride", xpOverrideInput.getValue().toString()));
 						configContentPanel.add(xpOverrideInput);
 					}
 				}
@@ -574,7 +1114,6 @@ class XpPanel extends PluginPanel
 				{
 					configContentPanel.setLayout(new GridLayout(5, 2, 5, 5));
 					configContentPanel.remove(xpOverrideLabel);
-					xpOverrideInput.removeChangeListener(e -> updateConfigValue("minimumXpOverride", xpOverrideInput.getValue().toString()));
 					configContentPanel.remove(xpOverrideInput);
 				}
 			} catch (Exception e) {
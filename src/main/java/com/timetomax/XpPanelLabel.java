@@ -42,6 +42,7 @@ public enum XpPanelLabel
 	ACTIONS_LEFT("Actions", snap -> format(snap.getActionsRemainingToGoal())),
 	ACTIONS_HOUR("Actions/hr", snap -> format(snap.getActionsPerHour())),
 	ACTIONS_DONE("Actions Done", snap -> format(snap.getActionsInSession())),
+	MAIN_ACTIONS_LEFT("Main Actions", snap -> format(snap.getDominantActionsRemainingToGoal())),
 	;
 
 	private final String key;
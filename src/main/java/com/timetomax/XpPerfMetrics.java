@@ -0,0 +1,273 @@
+package com.timetomax;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * Lightweight latency and allocation metrics of the plugin's event handlers, scheduled tasks, EDT work and
+ * overlay rendering. Latencies go into fixed log2 buckets of nanoseconds, so recording never allocates.
+ * <p>
+ * Recording is off unless enabled, eg. by dev mode, and then costs a single volatile read per call site.
+ * Usage:
+ * <pre>
+ * XpPerfMetrics.time(XpPerfMetrics.Metric.GAME_TICK, this::countDownInitialization);
+ * </pre>
+ * or, where the body needs the start time or returns a value:
+ * <pre>
+ * final long perfNanos = XpPerfMetrics.startNanos();
+ * final long perfBytes = XpPerfMetrics.startBytes();
+ * ...
+ * XpPerfMetrics.record(XpPerfMetrics.Metric.STAT_CHANGED, perfNanos, perfBytes);
+ * </pre>
+ */
+final class XpPerfMetrics
+{
+	enum Metric
+	{
+		STAT_CHANGED("onStatChanged"),
+		GAME_TICK("onGameTick"),
+		GAME_STATE_CHANGED("onGameStateChanged"),
+		PROFILE_CHANGED("onRuneScapeProfileChanged"),
+		CLIENT_SHUTDOWN("onClientShutdown"),
+		MENU_ENTRY_ADDED("onMenuEntryAdded"),
+		COMMAND_EXECUTED("onCommandExecuted"),
+		CONFIG_CHANGED("onConfigChanged"),
+		CONFIG_RECALCULATION("recalculateFromConfig"),
+		TICK_SKILL_TIMES("tickSkillTimes"),
+		STATE_SAVE("tickStateSave"),
+		SAVE_STATE("saveSaveState"),
+		INFO_BOX_REBUILD("XpInfoBox.rebuild"),
+		INFO_BOX_REORDER("XpPanel.reorder"),
+		PANEL_CATCH_UP("XpPanel.onActivate"),
+		TARGET_PANEL("XpPanel.updateTargetPanel"),
+		OVERLAY_RENDER("XpInfoBoxOverlay.render"),
+		XP_DROP_TO_PAINT("xp drop to paint"),
+		METRICS_EXPORT("XpMetricsExporter.render"),
+		;
+
+		@Getter
+		private final String displayName;
+
+		Metric(String displayName)
+		{
+			this.displayName = displayName;
+		}
+	}
+
+	// Bucket i holds latencies in [2^i, 2^(i+1)) ns, the last bucket everything above ~2s
+	static final int BUCKETS = 32;
+
+	private static final Stats[] STATS = new Stats[Metric.values().length];
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+	@Getter
+	private static volatile boolean enabled = Boolean.getBoolean("timetomax.dev");
+
+	static
+	{
+		for (int i = 0; i < STATS.length; i++)
+		{
+			STATS[i] = new Stats();
+		}
+	}
+
+	private XpPerfMetrics()
+	{
+	}
+
+	static void setEnabled(boolean enabled)
+	{
+		XpPerfMetrics.enabled = enabled;
+	}
+
+	private static com.sun.management.ThreadMXBean threadBean()
+	{
+		try
+		{
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean)
+			{
+				com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+				if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+				{
+					return sunBean;
+				}
+			}
+		}
+		catch (RuntimeException | LinkageError e)
+		{
+			// fall through, allocations just won't be reported
+		}
+		return null;
+	}
+
+	static long startNanos()
+	{
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	static long startBytes()
+	{
+		return enabled ? allocatedBytes() : -1L;
+	}
+
+	private static long allocatedBytes()
+	{
+		return THREAD_BEAN == null ? -1L : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Runs the body and records it under the metric, also when it throws
+	 */
+	static void time(Metric metric, Runnable body)
+	{
+		final long startNanos = startNanos();
+		final long startBytes = startBytes();
+		try
+		{
+			body.run();
+		}
+		finally
+		{
+			record(metric, startNanos, startBytes);
+		}
+	}
+
+	/**
+	 * Records a call started with {@link #startNanos()} and {@link #startBytes()}
+	 */
+	static void record(Metric metric, long startNanos, long startBytes)
+	{
+		if (!enabled || startNanos == 0L)
+		{
+			return;
+		}
+
+		final long nanos = System.nanoTime() - startNanos;
+		final long bytes = startBytes < 0 ? -1L : allocatedBytes() - startBytes;
+		recordValue(metric, nanos, bytes);
+	}
+
+	/**
+	 * Records a latency measured elsewhere, eg. across threads
+	 */
+	static void recordNanos(Metric metric, long nanos)
+	{
+		if (enabled)
+		{
+			recordValue(metric, nanos, -1L);
+		}
+	}
+
+	private static void recordValue(Metric metric, long nanos, long bytes)
+	{
+		final Stats stats = STATS[metric.ordinal()];
+		final int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1L, nanos)));
+		synchronized (stats)
+		{
+			stats.buckets[bucket]++;
+			stats.count++;
+			stats.totalNanos += nanos;
+			stats.maxNanos = Math.max(stats.maxNanos, nanos);
+			if (bytes >= 0)
+			{
+				stats.allocatedBytes += bytes;
+				stats.allocationSamples++;
+			}
+		}
+	}
+
+	static void reset()
+	{
+		for (Stats stats : STATS)
+		{
+			synchronized (stats)
+			{
+				stats.clear();
+			}
+		}
+	}
+
+	/**
+	 * Copies the current values of a metric
+	 */
+	static Summary summary(Metric metric)
+	{
+		final Stats stats = STATS[metric.ordinal()];
+		synchronized (stats)
+		{
+			return new Summary(metric, stats.count, stats.totalNanos, stats.maxNanos,
+				stats.percentile(0.5), stats.percentile(0.99),
+				stats.allocationSamples == 0 ? -1L : stats.allocatedBytes / stats.allocationSamples,
+				stats.buckets.clone());
+		}
+	}
+
+	static void forEachSummary(Consumer<Summary> consumer)
+	{
+		for (Metric metric : Metric.values())
+		{
+			consumer.accept(summary(metric));
+		}
+	}
+
+	private static final class Stats
+	{
+		private final long[] buckets = new long[BUCKETS];
+		private long count;
+		private long totalNanos;
+		private long maxNanos;
+		private long allocatedBytes;
+		private long allocationSamples;
+
+		/**
+		 * Upper bound of the bucket holding the given percentile
+		 */
+		private long percentile(double p)
+		{
+			if (count == 0)
+			{
+				return 0;
+			}
+
+			final long rank = (long) Math.ceil(p * count);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++)
+			{
+				seen += buckets[i];
+				if (seen >= rank)
+				{
+					return Math.min(maxNanos, (1L << (i + 1)) - 1);
+				}
+			}
+			return maxNanos;
+		}
+
+		private void clear()
+		{
+			Arrays.fill(buckets, 0);
+			count = 0;
+			totalNanos = 0;
+			maxNanos = 0;
+			allocatedBytes = 0;
+			allocationSamples = 0;
+		}
+	}
+
+	@Value
+	static class Summary
+	{
+		Metric metric;
+		long count;
+		long totalNanos;
+		long maxNanos;
+		long p50Nanos;
+		long p99Nanos;
+		// -1 if allocations aren't measured
+		long bytesPerCall;
+		long[] buckets;
+	}
+}
@@ -0,0 +1,34 @@
+package com.timetomax;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+/**
+ * Immutable progress of a single skill towards its interval goal, as published to {@link TimeToMaxListener}s
+ */
+@Value
+public class XpProgress
+{
+	Skill skill;
+	/**
+	 * Increases every time the skill's tracked state changes, including its rates decaying while it isn't trained
+	 */
+	long version;
+	long currentXp;
+	int xpGained;
+	int xpPerHour;
+	int actions;
+	int actionsPerHour;
+	int actionsRemaining;
+	int startGoalXp;
+	int endGoalXp;
+	String timeTillGoal;
+
+	/**
+	 * Whether the xp gained in the current interval reached the interval's goal
+	 */
+	public boolean isGoalCompleted()
+	{
+		return endGoalXp > startGoalXp && xpGained >= endGoalXp - startGoalXp;
+	}
+}
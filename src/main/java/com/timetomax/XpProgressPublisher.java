@@ -0,0 +1,153 @@
+package com.timetomax;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+
+/**
+ * Pushes skill progress to listeners of the TimeToMaxService when a skill's state version changes.
+ * Publishing happens on the client thread, the latest progress can be read from any thread. Rates and time
+ * till goal change as time passes, so they are republished every few seconds while they change.
+ */
+@Slf4j
+@Singleton
+class XpProgressPublisher
+{
+	private final List<TimeToMaxListener> listeners = new CopyOnWriteArrayList<>();
+	// Latest published progress, by skill ordinal
+	private final AtomicReferenceArray<XpProgress> latest = new AtomicReferenceArray<>(Skill.values().length);
+	private final long[] publishedVersions = new long[Skill.values().length];
+	private final boolean[] goalCompleted = new boolean[Skill.values().length];
+	// Immutable copy of the latest progress of all skills, rebuilt on first read after a publish
+	private volatile Map<Skill, XpProgress> allProgress = Collections.emptyMap();
+	private volatile boolean allProgressStale = false;
+
+	void addListener(TimeToMaxListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	void removeListener(TimeToMaxListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	XpProgress getLatest(Skill skill)
+	{
+		return latest.get(skill.ordinal());
+	}
+
+	/**
+	 * Writes a value of the latest progress of every skill to the array, by skill ordinal. Skills without
+	 * published progress are written as 0.
+	 *
+	 * @param stat Value to write
+	 * @param dest Array of at least {@code Skill.values().length} entries
+	 */
+	void fill(XpProgressStat stat, int[] dest)
+	{
+		final int skills = latest.length();
+		if (dest.length < skills)
+		{
+			throw new IllegalArgumentException("Destination needs " + skills + " entries, got " + dest.length);
+		}
+
+		final ToIntFunction<XpProgress> valueFunc = stat.getValueFunc();
+		for (int i = 0; i < skills; i++)
+		{
+			final XpProgress progress = latest.get(i);
+			dest[i] = progress == null ? 0 : valueFunc.applyAsInt(progress);
+		}
+	}
+
+	/**
+	 * Latest progress of every published skill. The map is immutable and the same instance is returned until
+	 * the next publish.
+	 */
+	Map<Skill, XpProgress> getAll()
+	{
+		if (!allProgressStale)
+		{
+			return allProgress;
+		}
+
+		// Clear the flag first, a publish racing the copy marks it stale again
+		allProgressStale = false;
+		final Map<Skill, XpProgress> all = new EnumMap<>(Skill.class);
+		for (Skill skill : Skill.values())
+		{
+			final XpProgress progress = latest.get(skill.ordinal());
+			if (progress != null)
+			{
+				all.put(skill, progress);
+			}
+		}
+		final Map<Skill, XpProgress> view = Collections.unmodifiableMap(all);
+		allProgress = view;
+		return view;
+	}
+
+	/**
+	 * Publishes the progress of a skill if its state changed since it was last published
+	 *
+	 * @param skill    Skill to publish
+	 * @param state    Current state of the skill
+	 * @param interval The tracked interval, reported with completed goals
+	 */
+	void publish(Skill skill, XpStateSingle state, TrackingInterval interval)
+	{
+		final int idx = skill.ordinal();
+		if (state == null || state.getStartXp() == -1 || state.getVersion() == publishedVersions[idx])
+		{
+			return;
+		}
+
+		// Goals already completed when a skill is first published, eg. after logging in, aren't reported
+		final boolean known = publishedVersions[idx] != 0;
+		publishedVersions[idx] = state.getVersion();
+		final XpProgress progress = state.progress(skill);
+		latest.set(idx, progress);
+		allProgressStale = true;
+
+		final boolean completed = progress.isGoalCompleted();
+		final boolean newlyCompleted = completed && known && !goalCompleted[idx];
+		goalCompleted[idx] = completed;
+
+		for (TimeToMaxListener listener : listeners)
+		{
+			try
+			{
+				listener.onProgress(progress);
+				if (newlyCompleted)
+				{
+					listener.onIntervalGoalCompleted(skill, interval);
+				}
+			}
+			catch (RuntimeException e)
+			{
+				log.warn("Time to Max listener {} threw", listener, e);
+			}
+		}
+	}
+
+	/**
+	 * Forgets published progress, eg. after the tracked account changed
+	 */
+	void clear()
+	{
+		for (int i = 0; i < publishedVersions.length; i++)
+		{
+			latest.set(i, null);
+			publishedVersions[i] = 0;
+			goalCompleted[i] = false;
+		}
+		allProgressStale = true;
+	}
+}
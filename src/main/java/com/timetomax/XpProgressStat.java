@@ -0,0 +1,26 @@
+package com.timetomax;
+
+import java.util.function.ToIntFunction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A numeric value of {@link XpProgress}, for reading all skills at once with
+ * {@link TimeToMaxService#fill(XpProgressStat, int[])}
+ */
+@Getter
+@AllArgsConstructor
+public enum XpProgressStat
+{
+	CURRENT_XP(progress -> (int) progress.getCurrentXp()),
+	XP_GAINED(XpProgress::getXpGained),
+	XP_PER_HOUR(XpProgress::getXpPerHour),
+	ACTIONS(XpProgress::getActions),
+	ACTIONS_PER_HOUR(XpProgress::getActionsPerHour),
+	ACTIONS_REMAINING(XpProgress::getActionsRemaining),
+	START_GOAL_XP(XpProgress::getStartGoalXp),
+	END_GOAL_XP(XpProgress::getEndGoalXp),
+	;
+
+	private final ToIntFunction<XpProgress> valueFunc;
+}
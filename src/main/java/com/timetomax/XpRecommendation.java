@@ -0,0 +1,45 @@
+package com.timetomax;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+@Value
+class XpRecommendation
+{
+	Skill skill;
+	// Xp still needed for the interval goal
+	int deficitXp;
+	// Hours of training the deficit takes at the skill's xp/hr, or at the goal's even pace if that is faster
+	double hoursNeeded;
+
+	/**
+	 * Hours needed at the precision they are shown with, in minutes, so the ranking only changes when what is
+	 * shown changes
+	 */
+	static long shownMinutes(double hoursNeeded)
+	{
+		if (hoursNeeded < 1)
+		{
+			return Math.max(1, (long) Math.ceil(hoursNeeded * 60));
+		}
+		return Math.round(hoursNeeded * 10) * 6;
+	}
+
+	/**
+	 * Whether the other recommendation shows the same skill, deficit and time needed
+	 */
+	boolean isShownAs(XpRecommendation other)
+	{
+		return skill == other.skill && deficitXp == other.deficitXp
+			&& shownMinutes(hoursNeeded) == shownMinutes(other.hoursNeeded);
+	}
+
+	String getTimeNeeded()
+	{
+		if (hoursNeeded < 1)
+		{
+			return Math.max(1, (int) Math.ceil(hoursNeeded * 60)) + "m";
+		}
+		return String.format("%.1fh", hoursNeeded);
+	}
+}
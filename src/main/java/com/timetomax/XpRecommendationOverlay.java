@@ -0,0 +1,55 @@
+package com.timetomax;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.util.List;
+import javax.inject.Inject;
+import static net.runelite.api.MenuAction.RUNELITE_OVERLAY_CONFIG;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import static net.runelite.client.ui.overlay.OverlayManager.OPTION_CONFIGURE;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Lists the skills furthest behind their interval goal with the training time each needs to catch up
+ */
+class XpRecommendationOverlay extends OverlayPanel
+{
+	private final TimeToMaxPlugin plugin;
+	private final TimeToMaxConfig config;
+
+	@Inject
+	XpRecommendationOverlay(TimeToMaxPlugin plugin, TimeToMaxConfig config)
+	{
+		super(plugin);
+		this.plugin = plugin;
+		this.config = config;
+		setPosition(OverlayPosition.TOP_LEFT);
+		addMenuEntry(RUNELITE_OVERLAY_CONFIG, OPTION_CONFIGURE, "Train next overlay");
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		final List<XpRecommendation> recommendations = plugin.getRecommendations();
+		final int count = Math.min(config.trainNextSkills(), recommendations.size());
+		if (!config.trainNextOverlay() || count == 0)
+		{
+			return null;
+		}
+
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Train next")
+			.build());
+		for (int i = 0; i < count; i++)
+		{
+			final XpRecommendation recommendation = recommendations.get(i);
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(recommendation.getSkill().getName())
+				.right(recommendation.getTimeNeeded())
+				.build());
+		}
+		return super.render(graphics);
+	}
+}
@@ -0,0 +1,181 @@
+package com.timetomax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.runelite.api.Skill;
+
+/**
+ * Ranks the skills that are behind their interval goal by the hours of training needed to catch up, using the
+ * skill's recent xp/hr or the goal's even pace over the period, whichever is faster. Every skill shares the
+ * time left in the period, so this is also the order of the share of the remaining time each skill needs.
+ * <p>
+ * Skills are kept in an indexed binary max-heap keyed by skill ordinal, so updating a skill after an xp drop
+ * is O(log n) instead of re-sorting all skills. Skills are ranked by the time needed at the precision it is
+ * shown with, so a change that doesn't show doesn't re-rank. Only used on the client thread.
+ */
+class XpRecommender
+{
+	private static final int SKILLS = Skill.values().length;
+	private static final Skill[] SKILL_VALUES = Skill.values();
+
+	// Skill ordinals in heap order
+	private final int[] heap = new int[SKILLS];
+	// Heap index of every skill ordinal, -1 if the skill isn't ranked
+	private final int[] positions = new int[SKILLS];
+	private final double[] hoursNeeded = new double[SKILLS];
+	// Heap key, hours needed as shown in minutes
+	private final long[] shownMinutes = new long[SKILLS];
+	private final int[] deficitXp = new int[SKILLS];
+	private int size;
+
+	// Reused by top() to pop from a copy of the heap
+	private final int[] scratchHeap = new int[SKILLS];
+	private final int[] scratchPositions = new int[SKILLS];
+
+	XpRecommender()
+	{
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Inserts or re-ranks a skill
+	 *
+	 * @return Whether the skill was inserted or its shown deficit or time needed changed
+	 */
+	boolean update(Skill skill, int deficit, double hours)
+	{
+		final int idx = skill.ordinal();
+		hoursNeeded[idx] = hours;
+		final long minutes = XpRecommendation.shownMinutes(hours);
+		int pos = positions[idx];
+		if (pos != -1 && deficitXp[idx] == deficit && shownMinutes[idx] == minutes)
+		{
+			return false;
+		}
+
+		deficitXp[idx] = deficit;
+		final long previous = shownMinutes[idx];
+		shownMinutes[idx] = minutes;
+		if (pos == -1)
+		{
+			pos = size++;
+			heap[pos] = idx;
+			positions[idx] = pos;
+			siftUp(heap, positions, pos);
+		}
+		else if (minutes > previous)
+		{
+			siftUp(heap, positions, pos);
+		}
+		else
+		{
+			siftDown(heap, positions, size, pos);
+		}
+		return true;
+	}
+
+	/**
+	 * Stops ranking a skill, eg. once its goal is met or it is maxed
+	 *
+	 * @return Whether the skill was ranked
+	 */
+	boolean remove(Skill skill)
+	{
+		final int idx = skill.ordinal();
+		final int pos = positions[idx];
+		if (pos == -1)
+		{
+			return false;
+		}
+
+		positions[idx] = -1;
+		size--;
+		if (pos != size)
+		{
+			final int last = heap[size];
+			heap[pos] = last;
+			positions[last] = pos;
+			siftUp(heap, positions, pos);
+			siftDown(heap, positions, size, positions[last]);
+		}
+		return true;
+	}
+
+	void clear()
+	{
+		Arrays.fill(positions, -1);
+		size = 0;
+	}
+
+	/**
+	 * @param count Maximum number of skills to return
+	 * @return The skills needing the most training, most behind first
+	 */
+	List<XpRecommendation> top(int count)
+	{
+		final int n = Math.min(count, size);
+		final List<XpRecommendation> top = new ArrayList<>(n);
+		System.arraycopy(heap, 0, scratchHeap, 0, size);
+		for (int i = 0; i < size; i++)
+		{
+			scratchPositions[scratchHeap[i]] = i;
+		}
+
+		int remaining = size;
+		for (int i = 0; i < n; i++)
+		{
+			final int idx = scratchHeap[0];
+			top.add(new XpRecommendation(SKILL_VALUES[idx], deficitXp[idx], hoursNeeded[idx]));
+			remaining--;
+			scratchHeap[0] = scratchHeap[remaining];
+			scratchPositions[scratchHeap[0]] = 0;
+			siftDown(scratchHeap, scratchPositions, remaining, 0);
+		}
+		return top;
+	}
+
+	private void siftUp(int[] tree, int[] treePositions, int pos)
+	{
+		final int idx = tree[pos];
+		while (pos > 0)
+		{
+			final int parent = (pos - 1) >>> 1;
+			if (shownMinutes[tree[parent]] >= shownMinutes[idx])
+			{
+				break;
+			}
+			tree[pos] = tree[parent];
+			treePositions[tree[pos]] = pos;
+			pos = parent;
+		}
+		tree[pos] = idx;
+		treePositions[idx] = pos;
+	}
+
+	private void siftDown(int[] tree, int[] treePositions, int treeSize, int pos)
+	{
+		final int idx = tree[pos];
+		while (true)
+		{
+			int child = 2 * pos + 1;
+			if (child >= treeSize)
+			{
+				break;
+			}
+			if (child + 1 < treeSize && shownMinutes[tree[child + 1]] > shownMinutes[tree[child]])
+			{
+				child++;
+			}
+			if (shownMinutes[tree[child]] <= shownMinutes[idx])
+			{
+				break;
+			}
+			tree[pos] = tree[child];
+			treePositions[tree[pos]] = pos;
+			pos = child;
+		}
+		tree[pos] = idx;
+		treePositions[idx] = pos;
+	}
+}
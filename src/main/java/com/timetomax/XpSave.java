@@ -27,7 +27,10 @@ package com.timetomax;
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
 import com.google.inject.Inject;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import net.runelite.api.Skill;
 import net.runelite.client.config.ConfigSerializer;
@@ -38,6 +41,12 @@ class XpSave
 {
 	Map<Skill, XpSaveSingle> skills = new LinkedHashMap<>();
 	XpSaveSingle overall;
+	Map<Skill, XpIntervalSave> intervals = new LinkedHashMap<>();
+	// Ended sessions oldest first, and the session that was still open when saved
+	List<XpSessionSave> sessions = new ArrayList<>();
+	XpSessionSave openSession;
+	// Hour of the week and xp pairs of the hours each skill gained xp in
+	Map<Skill, int[]> heatmap = new EnumMap<>(Skill.class);
 }
 
 class XpSaveSingle
@@ -62,6 +71,37 @@ class XpSaveSingle
 	boolean lowestSkill;
 }
 
+class XpIntervalSave
+{
+	// keyed by interval so adding intervals doesn't shift saved baselines
+	@SerializedName("s")
+	Map<TrackingInterval, Long> startXp;
+	@SerializedName("p")
+	Map<TrackingInterval, Long> periodStart; // epoch day
+	@SerializedName("c")
+	long currentXp;
+	@SerializedName("h")
+	int[] dailyGains; // oldest first
+	@SerializedName("b")
+	long carryOverXp;
+	@SerializedName("g")
+	int periodGoalXp;
+	@SerializedName("a")
+	int[] actions; // xp per drop and count pairs
+}
+
+class XpSessionSave
+{
+	@SerializedName("s")
+	long startMillis;
+	@SerializedName("e")
+	long endMillis;
+	@SerializedName("a")
+	long activeMillis;
+	@SerializedName("x")
+	Map<Skill, Integer> skillXp = new EnumMap<>(Skill.class);
+}
+
 class XpSaveSerializer implements Serializer<XpSave>
 {
 	private final Gson gson;
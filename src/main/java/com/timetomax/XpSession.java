@@ -0,0 +1,49 @@
+package com.timetomax;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+/**
+ * A finished training session, from its first to its last xp drop
+ */
+@Value
+class XpSession
+{
+	// Epoch millis of the first and last xp drop
+	long startMillis;
+	long endMillis;
+	// Time between drops that came close enough together to count as training
+	long activeMillis;
+	// Xp gained in the session, by Skill ordinal
+	int[] skillXp;
+
+	long getTotalXp()
+	{
+		long total = 0;
+		for (int xp : skillXp)
+		{
+			total += xp;
+		}
+		return total;
+	}
+
+	int getXp(Skill skill)
+	{
+		return skillXp[skill.ordinal()];
+	}
+
+	int getXpPerHour()
+	{
+		return toXpPerHour(getTotalXp());
+	}
+
+	int getXpPerHour(Skill skill)
+	{
+		return toXpPerHour(getXp(skill));
+	}
+
+	private int toXpPerHour(long xp)
+	{
+		return activeMillis <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, xp * 3_600_000L / activeMillis);
+	}
+}
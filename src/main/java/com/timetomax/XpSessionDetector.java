@@ -0,0 +1,188 @@
+package com.timetomax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.Skill;
+
+/**
+ * Splits the stream of xp drops into sessions, a session ends once no xp is gained for the configured gap or
+ * the player logs out. Ended sessions are kept in a small ring, so per session rates and the last session are
+ * cheap to look up.
+ */
+class XpSessionDetector
+{
+	static final int MAX_SESSIONS = 20;
+	// The game logs out players that are idle for 5 minutes, longer waits between drops aren't active time
+	static final long IDLE_MILLIS = 5 * 60 * 1000;
+	private static final Skill[] SKILLS = Skill.values();
+
+	// Ring of ended sessions, head is the next slot to write
+	private final XpSession[] sessions = new XpSession[MAX_SESSIONS];
+	private int head;
+	private int count;
+
+	// Open session, startMillis is 0 while there is none
+	private long startMillis;
+	private long lastDropMillis;
+	private long activeMillis;
+	private final int[] skillXp = new int[SKILLS.length];
+
+	/**
+	 * Records an xp drop, ending the open session first if its last drop is more than gapMillis ago
+	 */
+	void drop(Skill skill, long xp, long nowMillis, long gapMillis)
+	{
+		tick(nowMillis, gapMillis);
+		if (startMillis == 0)
+		{
+			startMillis = nowMillis;
+			lastDropMillis = nowMillis;
+		}
+
+		final long sinceLastDrop = nowMillis - lastDropMillis;
+		if (sinceLastDrop > 0 && sinceLastDrop <= IDLE_MILLIS)
+		{
+			activeMillis += sinceLastDrop;
+		}
+		lastDropMillis = Math.max(lastDropMillis, nowMillis);
+		skillXp[skill.ordinal()] = (int) Math.min(Integer.MAX_VALUE, skillXp[skill.ordinal()] + xp);
+	}
+
+	/**
+	 * Ends the open session if its last drop is more than gapMillis ago
+	 *
+	 * @return Whether a session ended
+	 */
+	boolean tick(long nowMillis, long gapMillis)
+	{
+		return startMillis != 0 && nowMillis - lastDropMillis > gapMillis && end();
+	}
+
+	/**
+	 * Ends the open session, eg. on logout
+	 *
+	 * @return Whether a session was open
+	 */
+	boolean end()
+	{
+		if (startMillis == 0)
+		{
+			return false;
+		}
+
+		add(new XpSession(startMillis, lastDropMillis, activeMillis, skillXp.clone()));
+		startMillis = 0;
+		lastDropMillis = 0;
+		activeMillis = 0;
+		Arrays.fill(skillXp, 0);
+		return true;
+	}
+
+	private void add(XpSession session)
+	{
+		sessions[head] = session;
+		head = (head + 1) % MAX_SESSIONS;
+		count = Math.min(count + 1, MAX_SESSIONS);
+	}
+
+	/**
+	 * Last ended session, null if there is none
+	 */
+	XpSession getLastSession()
+	{
+		return count == 0 ? null : sessions[(head + MAX_SESSIONS - 1) % MAX_SESSIONS];
+	}
+
+	/**
+	 * Ended sessions, oldest first
+	 */
+	List<XpSession> getSessions()
+	{
+		final List<XpSession> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			list.add(sessions[(head - count + i + MAX_SESSIONS) % MAX_SESSIONS]);
+		}
+		return list;
+	}
+
+	void clear()
+	{
+		Arrays.fill(sessions, null);
+		head = 0;
+		count = 0;
+		startMillis = 0;
+		lastDropMillis = 0;
+		activeMillis = 0;
+		Arrays.fill(skillXp, 0);
+	}
+
+	void save(XpSave save)
+	{
+		for (XpSession session : getSessions())
+		{
+			save.sessions.add(save(session.getStartMillis(), session.getEndMillis(), session.getActiveMillis(), session.getSkillXp()));
+		}
+		if (startMillis != 0)
+		{
+			save.openSession = save(startMillis, lastDropMillis, activeMillis, skillXp);
+		}
+	}
+
+	private static XpSessionSave save(long startMillis, long endMillis, long activeMillis, int[] skillXp)
+	{
+		final XpSessionSave save = new XpSessionSave();
+		save.startMillis = startMillis;
+		save.endMillis = endMillis;
+		save.activeMillis = activeMillis;
+		for (Skill skill : SKILLS)
+		{
+			if (skillXp[skill.ordinal()] > 0)
+			{
+				save.skillXp.put(skill, skillXp[skill.ordinal()]);
+			}
+		}
+		return save;
+	}
+
+	void restore(XpSave save)
+	{
+		clear();
+		if (save.sessions != null)
+		{
+			for (XpSessionSave session : save.sessions)
+			{
+				add(new XpSession(session.startMillis, session.endMillis, session.activeMillis, restoreXp(session)));
+			}
+		}
+
+		// The open session carries on if xp is gained again within the gap, otherwise the next tick ends it
+		final XpSessionSave open = save.openSession;
+		if (open != null && open.startMillis != 0)
+		{
+			startMillis = open.startMillis;
+			lastDropMillis = open.endMillis;
+			activeMillis = open.activeMillis;
+			System.arraycopy(restoreXp(open), 0, skillXp, 0, skillXp.length);
+		}
+	}
+
+	private static int[] restoreXp(XpSessionSave save)
+	{
+		final int[] xp = new int[SKILLS.length];
+		if (save.skillXp != null)
+		{
+			for (Map.Entry<Skill, Integer> entry : save.skillXp.entrySet())
+			{
+				// Skills unknown to this client deserialize as null
+				if (entry.getKey() != null && entry.getValue() != null)
+				{
+					xp[entry.getKey().ordinal()] = entry.getValue();
+				}
+			}
+		}
+		return xp;
+	}
+}
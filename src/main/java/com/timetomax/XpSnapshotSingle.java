@@ -27,7 +27,7 @@ package com.timetomax;
 import lombok.Builder;
 import lombok.Value;
 
-@Builder
+@Builder(toBuilder = true)
 @Value
 class XpSnapshotSingle
 {
@@ -49,4 +49,12 @@ class XpSnapshotSingle
 	private String timeTillGoalHours;
 	private String timeTillGoalShort;
 	private boolean lowestSkill;
+	// System.nanoTime() of the xp drop this snapshot was built for, 0 if it isn't traced
+	private long updateNanos;
+	// Xp of the most frequent drop and the drops of it left to the goal, Integer.MAX_VALUE if unknown
+	private int dominantActionXp;
+	private int dominantActionsRemainingToGoal;
+	private long currentXp;
+	// Xp at the start of each interval's current period by TrackingInterval ordinal, -1 if unknown. Null for overall
+	private long[] intervalStartXp;
 }
@@ -0,0 +1,93 @@
+package com.timetomax;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import javax.swing.JLabel;
+import net.runelite.client.ui.ColorScheme;
+
+/**
+ * Label showing a light gray key followed by a white value, e.g. "XP/hr: 52.3K".
+ * The text is only replaced when the key or value actually changed. In plain text mode the label paints
+ * both parts itself instead of going through the html renderer, which skips the html parse on every refresh.
+ */
+class XpStatLabel extends JLabel
+{
+	private String key = "";
+	private String value = "";
+	private boolean plainText = false;
+
+	void setStat(String key, String value)
+	{
+		if (key.equals(this.key) && value.equals(this.value))
+		{
+			return;
+		}
+
+		this.key = key;
+		this.value = value;
+		applyText();
+	}
+
+	void setPlainText(boolean plainText)
+	{
+		if (this.plainText == plainText)
+		{
+			return;
+		}
+
+		this.plainText = plainText;
+		applyText();
+	}
+
+	private void applyText()
+	{
+		if (key.isEmpty() && value.isEmpty())
+		{
+			setText("");
+		}
+		else if (plainText)
+		{
+			// Keep the plain text as the label text so the look and feel still computes the preferred size
+			setText(key + value);
+		}
+		else
+		{
+			setText(XpInfoBox.htmlLabel(key, value));
+		}
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		if (!plainText || getText().isEmpty())
+		{
+			super.paintComponent(g);
+			return;
+		}
+
+		final Graphics2D graphics = (Graphics2D) g.create();
+		try
+		{
+			final Insets insets = getInsets();
+			final int width = getWidth() - insets.left - insets.right;
+			final int height = getHeight() - insets.top - insets.bottom;
+			final FontMetrics metrics = graphics.getFontMetrics(getFont());
+			final int y = insets.top + (height - metrics.getHeight()) / 2 + metrics.getAscent();
+
+			// Same as the nowrap/overflow hidden style of the html label
+			graphics.clipRect(insets.left, insets.top, width, height);
+			graphics.setFont(getFont());
+			graphics.setColor(ColorScheme.LIGHT_GRAY_COLOR);
+			graphics.drawString(key, insets.left, y);
+			graphics.setColor(Color.WHITE);
+			graphics.drawString(value, insets.left + metrics.stringWidth(key), y);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+	}
+}
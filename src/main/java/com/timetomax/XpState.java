@@ -1,9 +1,14 @@
 package com.timetomax;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import javax.inject.Inject;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -15,10 +20,24 @@ import net.runelite.api.Skill;
 @Slf4j
 class XpState
 {
-	private final Map<Skill, XpStateSingle> xpSkills = new EnumMap<>(Skill.class);
+	private Map<Skill, XpStateSingle> xpSkills = new EnumMap<>(Skill.class);
 	// this is keeping a copy of the panel skill order so that serialization keeps the order
-	private final List<Skill> order = new ArrayList<>(Skill.values().length);
+	private List<Skill> order = new ArrayList<>(Skill.values().length);
 	private XpStateSingle overall = new XpStateSingle(-1, -1);
+	// Interval baselines per skill. These follow the calendar rather than the session, so they survive reset().
+	private Map<Skill, XpIntervalTracker> intervalTrackers = new EnumMap<>(Skill.class);
+	// Sessions follow the account rather than the period, so they survive reset() too
+	private XpSessionDetector sessions = new XpSessionDetector();
+	private XpHeatmap heatmap = new XpHeatmap();
+	// The state above belongs to the current account and world type, the state of the others is parked here
+	// so hopping between world types swaps state instead of rebuilding it. Least recently used first.
+	private final Map<String, Partition> partitions = new LinkedHashMap<>(16, 0.75f, true);
+	private String partitionKey;
+	// RS profile the current state is saved under, used to save state when it is parked or evicted
+	private String profileKey;
+	private BiConsumer<String, XpSave> saveHandler;
+	// Epoch day of the current period start of every tracking interval, by ordinal
+	private final long[] periodStarts = currentPeriodStarts();
 
 	@Inject
 	private TimeToMaxConfig config;
@@ -33,6 +52,329 @@ class XpState
 		overall = new XpStateSingle(-1, -1);
 	}
 
+	private static final class Partition
+	{
+		private final Map<Skill, XpStateSingle> xpSkills;
+		private final List<Skill> order;
+		private final XpStateSingle overall;
+		private final Map<Skill, XpIntervalTracker> intervalTrackers;
+		private final XpSessionDetector sessions;
+		private final XpHeatmap heatmap;
+		private final String profileKey;
+
+		private Partition(Map<Skill, XpStateSingle> xpSkills, List<Skill> order, XpStateSingle overall,
+			Map<Skill, XpIntervalTracker> intervalTrackers, XpSessionDetector sessions, XpHeatmap heatmap,
+			String profileKey)
+		{
+			this.xpSkills = xpSkills;
+			this.order = order;
+			this.overall = overall;
+			this.intervalTrackers = intervalTrackers;
+			this.sessions = sessions;
+			this.heatmap = heatmap;
+			this.profileKey = profileKey;
+		}
+	}
+
+	/**
+	 * Sets the handler receiving the save of state that is parked or dropped from memory, with its RS profile key
+	 */
+	void setSaveHandler(BiConsumer<String, XpSave> saveHandler)
+	{
+		this.saveHandler = saveHandler;
+	}
+
+	static String partitionKey(long accountHash, XpWorldType worldType)
+	{
+		return accountHash + ":" + worldType;
+	}
+
+	/**
+	 * Makes the state of another account and world type current, parking the current state. Switching back
+	 * restores the parked state as it was left.
+	 *
+	 * At most the configured number of parked partitions are kept, the least recently used ones are handed to
+	 * the eviction handler to be saved.
+	 *
+	 * @param key     Partition key from {@link #partitionKey(long, XpWorldType)}
+	 * @param profile RS profile key the partition is saved under
+	 * @return Whether the partition had already been initialized and needs no initialization from the client
+	 */
+	boolean switchPartition(String key, String profile)
+	{
+		if (key.equals(partitionKey))
+		{
+			profileKey = profile;
+			return isOverallInitialized();
+		}
+
+		if (partitionKey != null)
+		{
+			// Saved under its own profile, which may no longer be the client's current one
+			final XpSave save = save();
+			if (save != null && profileKey != null && saveHandler != null)
+			{
+				saveHandler.accept(profileKey, save);
+			}
+			partitions.put(partitionKey, new Partition(xpSkills, order, overall, intervalTrackers, sessions, heatmap, profileKey));
+		}
+
+		final Partition partition = partitions.remove(key);
+		partitionKey = key;
+		profileKey = profile;
+		evictPartitions();
+		if (partition == null)
+		{
+			xpSkills = new EnumMap<>(Skill.class);
+			order = new ArrayList<>(Skill.values().length);
+			overall = new XpStateSingle(-1, -1);
+			intervalTrackers = new EnumMap<>(Skill.class);
+			sessions = new XpSessionDetector();
+			heatmap = new XpHeatmap();
+			return false;
+		}
+
+		xpSkills = partition.xpSkills;
+		order = partition.order;
+		overall = partition.overall;
+		intervalTrackers = partition.intervalTrackers;
+		sessions = partition.sessions;
+		heatmap = partition.heatmap;
+		// Periods may have ended while the partition was parked
+		for (XpIntervalTracker tracker : intervalTrackers.values())
+		{
+			tracker.roll(periodStarts);
+		}
+		return isOverallInitialized();
+	}
+
+	/**
+	 * Whether the current state belongs to the given partition
+	 */
+	boolean isCurrentPartition(String key)
+	{
+		return key.equals(partitionKey);
+	}
+
+	/**
+	 * Moves the current state to another RS profile, eg. when the profile changes after the partition was switched
+	 */
+	void setProfileKey(String profile)
+	{
+		profileKey = profile;
+	}
+
+	String getProfileKey()
+	{
+		return profileKey;
+	}
+
+	private void evictPartitions()
+	{
+		final int cap = Math.max(0, config.cachedAccounts());
+		final Iterator<Partition> it = partitions.values().iterator();
+		while (partitions.size() > cap && it.hasNext())
+		{
+			final Partition partition = it.next();
+			it.remove();
+
+			final XpSave save = save(partition.xpSkills, partition.order, partition.overall, partition.intervalTrackers,
+				partition.sessions, partition.heatmap);
+			if (save != null && partition.profileKey != null && saveHandler != null)
+			{
+				log.debug("Evicting cached xp state of profile {}", partition.profileKey);
+				saveHandler.accept(partition.profileKey, save);
+			}
+		}
+	}
+
+	/**
+	 * Whether the state saved under the RS profile is held in memory, so it doesn't need loading
+	 */
+	boolean isProfileCached(String profile)
+	{
+		if (profile == null)
+		{
+			return false;
+		}
+
+		if (profile.equals(profileKey))
+		{
+			// A partition that was just switched to still needs its save
+			return isOverallInitialized();
+		}
+
+		for (Partition partition : partitions.values())
+		{
+			if (profile.equals(partition.profileKey))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Destroys the state of every account and world type, including interval baselines.
+	 */
+	void clearPartitions()
+	{
+		reset();
+		intervalTrackers.clear();
+		sessions.clear();
+		heatmap.clear();
+		partitions.clear();
+		partitionKey = null;
+		profileKey = null;
+	}
+
+	/**
+	 * Starts new interval baselines for every interval whose period has ended since the last call.
+	 *
+	 * @return Whether any interval rolled over to a new period
+	 */
+	boolean rollIntervals()
+	{
+		final long[] starts = currentPeriodStarts();
+		if (Arrays.equals(starts, periodStarts))
+		{
+			return false;
+		}
+
+		System.arraycopy(starts, 0, periodStarts, 0, starts.length);
+		for (XpIntervalTracker tracker : intervalTrackers.values())
+		{
+			tracker.roll(periodStarts);
+		}
+		return true;
+	}
+
+	private static long[] currentPeriodStarts()
+	{
+		final TrackingInterval[] intervals = TrackingInterval.values();
+		final long[] starts = new long[intervals.length];
+		for (TrackingInterval interval : intervals)
+		{
+			starts[interval.ordinal()] = XpCalculator.getCurrentPeriodStart(interval).toEpochDay();
+		}
+		return starts;
+	}
+
+	/**
+	 * Records the current xp of a skill in its interval baselines, initializing them if needed.
+	 *
+	 * @param skill     Skill to update
+	 * @param currentXp Current known XP for this skill
+	 */
+	void updateIntervals(Skill skill, long currentXp)
+	{
+		intervalTrackers.computeIfAbsent(skill, s -> new XpIntervalTracker(periodStarts)).update(currentXp);
+	}
+
+	/**
+	 * Goal of a skill's current period adjusted by its carried over surplus or deficit
+	 *
+	 * @param requiredXp Goal recomputed from the skill's current xp, fixed as the pace when the balance starts
+	 */
+	long getCarryOverGoal(Skill skill, int requiredXp)
+	{
+		return intervalTrackers.computeIfAbsent(skill, s -> new XpIntervalTracker(periodStarts)).getCarryOverGoalXp(requiredXp);
+	}
+
+	void settleCarryOver(Skill skill, long gainedXp, int periods)
+	{
+		final XpIntervalTracker tracker = intervalTrackers.get(skill);
+		if (tracker != null)
+		{
+			tracker.settleCarryOver(gainedXp, periods);
+		}
+	}
+
+	void clearCarryOver()
+	{
+		for (XpIntervalTracker tracker : intervalTrackers.values())
+		{
+			tracker.clearCarryOver();
+		}
+	}
+
+	/**
+	 * Xp gained by a skill on each of its last tracked days, oldest first
+	 */
+	int[] getDailyGains(Skill skill)
+	{
+		final XpIntervalTracker tracker = intervalTrackers.get(skill);
+		return tracker == null ? new int[0] : tracker.getDailyGains();
+	}
+
+	/**
+	 * Ends the open session if no xp was gained for the configured session gap
+	 *
+	 * @return Whether a session ended
+	 */
+	boolean tickSession()
+	{
+		return sessions.tick(System.currentTimeMillis(), sessionGapMillis());
+	}
+
+	/**
+	 * Ends the open session, eg. on logout
+	 */
+	boolean endSession()
+	{
+		return sessions.end();
+	}
+
+	/**
+	 * Last ended session, null if there is none
+	 */
+	XpSession getLastSession()
+	{
+		return sessions.getLastSession();
+	}
+
+	/**
+	 * Ended sessions, oldest first
+	 */
+	List<XpSession> getSessions()
+	{
+		return sessions.getSessions();
+	}
+
+	/**
+	 * Xp per skill and hour of the week of the current account and world type
+	 */
+	XpHeatmap getHeatmap()
+	{
+		return heatmap;
+	}
+
+	private long sessionGapMillis()
+	{
+		return Math.max(1, config.sessionGap()) * 60_000L;
+	}
+
+	/**
+	 * Moves the session baseline of a skill to the start of the current period of another interval, keeping
+	 * the xp gained in that period instead of resetting the skill.
+	 *
+	 * @param skill    Skill to rebase
+	 * @param interval Interval to take the baseline from
+	 */
+	void rebaseSkill(Skill skill, TrackingInterval interval)
+	{
+		final XpStateSingle state = xpSkills.get(skill);
+		final XpIntervalTracker tracker = intervalTrackers.get(skill);
+		if (state == null || state.getStartXp() == -1 || tracker == null || tracker.getStartXp(interval) == -1)
+		{
+			return;
+		}
+
+		state.rebase(tracker.getStartXp(interval));
+		final LocalDate periodStart = LocalDate.ofEpochDay(periodStarts[interval.ordinal()]);
+		state.updateStartDate(periodStart.getDayOfMonth(), periodStart.getMonthValue(), periodStart.getYear());
+	}
+
 	/**
 	 * Resets the per hour rates of a single skill
 	 *
@@ -61,6 +403,20 @@ class XpState
 	 * @return Whether or not the skill has been initialized, there was no change, or it has been updated
 	 */
 	XpUpdateResult updateSkill(Skill skill, long currentXp, int goalStartXp, int goalEndXp)
+	{
+		return updateSkill(skill, currentXp, goalStartXp, goalEndXp, true);
+	}
+
+	/**
+	 * Credits xp a skill gained while logged out, like {@link #updateSkill(Skill, long, int, int)} but without
+	 * recording it as a drop in the action catalog, session or heatmap
+	 */
+	XpUpdateResult creditOfflineXp(Skill skill, long currentXp, int goalStartXp, int goalEndXp)
+	{
+		return updateSkill(skill, currentXp, goalStartXp, goalEndXp, false);
+	}
+
+	private XpUpdateResult updateSkill(Skill skill, long currentXp, int goalStartXp, int goalEndXp, boolean drop)
 	{
 		XpStateSingle state = xpSkills.get(skill);
 
@@ -83,11 +439,20 @@ class XpState
 			}
 			else
 			{
+				final long previousXp = state.getCurrentXp();
 				if (!state.update(currentXp))
 				{
 					return XpUpdateResult.NO_CHANGE;
 				}
 
+				updateIntervals(skill, currentXp);
+				if (drop)
+				{
+					intervalTrackers.get(skill).recordAction(currentXp - previousXp);
+					sessions.drop(skill, currentXp - previousXp, System.currentTimeMillis(), sessionGapMillis());
+					heatmap.add(skill, currentXp - previousXp);
+				}
+				addOverallXp(currentXp - previousXp);
 				state.updateGoals(goalStartXp, goalEndXp);
 				updateOrder(skill);
 				return XpUpdateResult.UPDATED;
@@ -107,6 +472,25 @@ class XpState
 		}
 	}
 
+	/**
+	 * Adds xp gained in a single skill to the overall state, so overall xp is kept up to date from
+	 * skill deltas instead of being read from the client on every xp drop.
+	 *
+	 * @param deltaXp Xp gained in the skill
+	 */
+	void addOverallXp(long deltaXp)
+	{
+		if (deltaXp > 0 && overall.getStartXp() != -1)
+		{
+			overall.update(overall.getCurrentXp() + deltaXp);
+		}
+	}
+
+	long getOverallXp()
+	{
+		return overall.getCurrentXp();
+	}
+
 	void tick(Skill skill, long delta)
 	{
 		final XpStateSingle state = getSkill(skill);
@@ -146,6 +530,7 @@ class XpState
 	void initializeSkill(Skill skill, long currentXp)
 	{
 		xpSkills.put(skill, new XpStateSingle(currentXp));
+		updateIntervals(skill, currentXp);
 	}
 
 	void initializeOverall(long currentXp)
@@ -191,7 +576,15 @@ class XpState
 	@NonNull
 	XpSnapshotSingle getSkillSnapshot(Skill skill)
 	{
-		return getSkill(skill).snapshot();
+		return getSkillSnapshot(skill, 0L);
+	}
+
+	XpSnapshotSingle getSkillSnapshot(Skill skill, long updateNanos)
+	{
+		final XpIntervalTracker tracker = intervalTrackers.get(skill);
+		return tracker == null
+			? getSkill(skill).snapshot(updateNanos, 0, null)
+			: getSkill(skill).snapshot(updateNanos, tracker.getDominantActionXp(), tracker.getStartXps());
 	}
 
 	/**
@@ -269,6 +662,28 @@ class XpState
 	}
 
 	XpSave save()
+	{
+		return save(xpSkills, order, overall, intervalTrackers, sessions, heatmap);
+	}
+
+	/**
+	 * Saves only the interval trackers, sessions and heatmap, for a reset that starts the skills over but keeps
+	 * their baselines, daily history, carry over balances, sessions and heatmap
+	 */
+	XpSave saveIntervals()
+	{
+		XpSave save = new XpSave();
+		for (Map.Entry<Skill, XpIntervalTracker> entry : intervalTrackers.entrySet())
+		{
+			save.intervals.put(entry.getKey(), entry.getValue().save());
+		}
+		sessions.save(save);
+		heatmap.save(save);
+		return save;
+	}
+
+	private static XpSave save(Map<Skill, XpStateSingle> xpSkills, List<Skill> order, XpStateSingle overall,
+		Map<Skill, XpIntervalTracker> intervalTrackers, XpSessionDetector sessions, XpHeatmap heatmap)
 	{
 		if (overall.getStartXp() == -1)
 		{
@@ -285,6 +700,12 @@ class XpState
 			}
 		}
 		save.overall = overall.save();
+		for (Map.Entry<Skill, XpIntervalTracker> entry : intervalTrackers.entrySet())
+		{
+			save.intervals.put(entry.getKey(), entry.getValue().save());
+		}
+		sessions.save(save);
+		heatmap.save(save);
 		return save;
 	}
 
@@ -292,6 +713,17 @@ class XpState
 	{
 		reset();
 
+		rollIntervals();
+		intervalTrackers.clear();
+		for (Map.Entry<Skill, XpIntervalSave> entry : save.intervals.entrySet())
+		{
+			XpIntervalTracker tracker = new XpIntervalTracker(periodStarts);
+			tracker.restore(entry.getValue(), periodStarts);
+			intervalTrackers.put(entry.getKey(), tracker);
+		}
+		sessions.restore(save);
+		heatmap.restore(save);
+
 		if (save.skills.entrySet().isEmpty())
 		{
 			log.debug("No skills in save!");
@@ -28,14 +28,19 @@ package com.timetomax;
 
 import java.util.Arrays;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Experience;
+import net.runelite.api.Skill;
 
 @Slf4j
 class XpStateSingle
 {
+	// Versions are unique across all states, so a state replacing another never reuses a published version
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
 	private int actions = 0;
 	private int actionsSinceReset = 0;
 	private boolean actionsHistoryInitialized = false;
@@ -80,6 +85,10 @@ class XpStateSingle
 	@Setter
 	private boolean lowestSkill = false;
 
+	// Changes whenever xp, goals or baselines change, used to only publish changed progress
+	@Getter
+	private long version = VERSIONS.incrementAndGet();
+
 	XpStateSingle(long startXp, long endXp)
 	{
 		this.startXp = startXp;
@@ -120,7 +129,7 @@ class XpStateSingle
 		return Math.max(60, skillTime / 1000);
 	}
 
-	private int getXpRemaining()
+	int getXpRemaining()
 	{
 		// Always use endLevelExp which is the current goal (either user defined or next level)
 		// endLevelExp is properly set in updateGoals based on the user's configured goal
@@ -155,10 +164,23 @@ class XpStateSingle
 		return Integer.MAX_VALUE;
 	}
 
+	/**
+	 * Xp of the current interval goal, 0 if no goal is set
+	 */
+	int getGoalXp()
+	{
+		return Math.max(0, endLevelExp - startLevelExp);
+	}
+
 	private double getSkillProgress()
 	{
 		double xpGained = getTotalXpGained();
 		double xpGoal = endLevelExp - startLevelExp;
+		if (xpGoal == 0 && endLevelExp > 0)
+		{
+			// A carried over surplus can cover the whole goal
+			return 100;
+		}
 		return (xpGained / xpGoal) * 100;
 	}
 
@@ -178,7 +200,14 @@ class XpStateSingle
 
 	private String getTimeTillLevel(XpGoalTimeType goalTimeType)
 	{
-		long remainingSeconds = getSecondsTillLevel();
+		return formatTimeTill(getSecondsTillLevel(), goalTimeType);
+	}
+
+	/**
+	 * @param remainingSeconds Seconds left, negative if unknown
+	 */
+	static String formatTimeTill(long remainingSeconds, XpGoalTimeType goalTimeType)
+	{
 		if (remainingSeconds < 0)
 		{
 			return "\u221e";
@@ -242,6 +271,7 @@ class XpStateSingle
 		xpGainedSinceReset = 0;
 		lastChangeMillis = System.currentTimeMillis();
 		setSkillTime(0);
+		version = VERSIONS.incrementAndGet();
 	}
 
 	boolean update(long currentXp)
@@ -281,18 +311,41 @@ class XpStateSingle
 		// Calculate experience gained
 		xpGainedSinceReset = (int) (currentXp - (startXp + xpGainedBeforeReset));
 		lastChangeMillis = System.currentTimeMillis();
+		version = VERSIONS.incrementAndGet();
 
 		return true;
 	}
 
+	/**
+	 * Moves the start xp to a new baseline while keeping the current xp, the per hour rate is kept as long as
+	 * its gains happened after the new baseline.
+	 *
+	 * @param newStartXp Xp of the new baseline
+	 */
+	void rebase(long newStartXp)
+	{
+		final long currentXp = getCurrentXp();
+		final int gained = (int) Math.max(0, currentXp - newStartXp);
+		startXp = currentXp - gained;
+		xpGainedSinceReset = Math.min(xpGainedSinceReset, gained);
+		xpGainedBeforeReset = gained - xpGainedSinceReset;
+		version = VERSIONS.incrementAndGet();
+	}
+
 	void updateGoals(int goalStartXp, int goalEndXp)
 	{
 		// Since we're calculating start and end goal, we just set the values directly
 		// Default to 0 if the goal is not set
+		final int previousStart = startLevelExp;
+		final int previousEnd = endLevelExp;
 		startLevelExp = Math.max(goalStartXp, 0);
 
 		endLevelExp = Math.max(goalEndXp, 0);
 		endXp = endLevelExp;
+		if (startLevelExp != previousStart || endLevelExp != previousEnd)
+		{
+			version = VERSIONS.incrementAndGet();
+		}
 	}
 
 	void updateStartDate(int startDay, int startMonth, int startYear)
@@ -310,6 +363,8 @@ class XpStateSingle
 			return;
 		}
 		skillTime += delta;
+		// The rates derive from the time spent, so they are published again too
+		version = VERSIONS.incrementAndGet();
 	}
 
 	LocalDate convertToLocalDate(int year, int month, int day)
@@ -326,6 +381,16 @@ class XpStateSingle
 	}
 
 	XpSnapshotSingle snapshot()
+	{
+		return snapshot(0L, 0, null);
+	}
+
+	/**
+	 * @param updateNanos      System.nanoTime() of the xp drop the snapshot is built for, to trace it until painted
+	 * @param dominantActionXp Xp of the skill's most frequent drop, 0 if unknown
+	 * @param intervalStartXp  Baselines of every interval by ordinal, so the UI can show any interval, or null
+	 */
+	XpSnapshotSingle snapshot(long updateNanos, int dominantActionXp, long[] intervalStartXp)
 	{
 		return XpSnapshotSingle.builder()
 			.startLevel(Experience.getLevelForXp(startLevelExp))
@@ -346,9 +411,32 @@ class XpStateSingle
 			.startGoalXp(startLevelExp)
 			.endGoalXp(endLevelExp)
 			.lowestSkill(lowestSkill)
+			.updateNanos(updateNanos)
+			.dominantActionXp(dominantActionXp)
+			.dominantActionsRemainingToGoal(dominantActionXp > 0
+				? (getXpRemaining() + dominantActionXp - 1) / dominantActionXp
+				: Integer.MAX_VALUE)
+			.currentXp(getCurrentXp())
+			.intervalStartXp(intervalStartXp)
 			.build();
 	}
 
+	XpProgress progress(Skill skill)
+	{
+		return new XpProgress(
+			skill,
+			version,
+			getCurrentXp(),
+			getTotalXpGained(),
+			getXpHr(),
+			actions,
+			getActionsHr(),
+			getActionsRemaining(),
+			startLevelExp,
+			endLevelExp,
+			getTimeTillLevel(XpGoalTimeType.SHORT));
+	}
+
 	XpSaveSingle save()
 	{
 		XpSaveSingle save = new XpSaveSingle();
@@ -375,5 +463,6 @@ class XpStateSingle
 		xpGainedBeforeReset = save.xpGainedBeforeReset;
 		xpGainedSinceReset = save.xpGainedSinceReset;
 		skillTime = save.time;
+		version = VERSIONS.incrementAndGet();
 	}
 }
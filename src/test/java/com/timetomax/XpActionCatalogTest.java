@@ -0,0 +1,118 @@
+package com.timetomax;
+
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class XpActionCatalogTest
+{
+	private static Map<Integer, Integer> counts(XpActionCatalog catalog)
+	{
+		final int[] pairs = catalog.save();
+		final Map<Integer, Integer> counts = new HashMap<>();
+		for (int i = 0; i < pairs.length; i += 2)
+		{
+			counts.put(pairs[i], pairs[i + 1]);
+		}
+		return counts;
+	}
+
+	@Test
+	public void testDominantIsMostFrequent()
+	{
+		final XpActionCatalog catalog = new XpActionCatalog();
+		assertEquals(0, catalog.getDominantXp());
+		catalog.add(35);
+		catalog.add(50);
+		catalog.add(50);
+		catalog.add(0);
+		catalog.add(-10);
+		assertEquals(50, catalog.getDominantXp());
+		assertEquals(2, catalog.size());
+	}
+
+	@Test
+	public void testEvictionKeepsDominant()
+	{
+		final XpActionCatalog catalog = new XpActionCatalog();
+		// Every value is seen once, so the first one stays dominant and is the least frequent
+		for (int xp = 1; xp <= XpActionCatalog.MAX_ACTIONS; xp++)
+		{
+			catalog.add(xp);
+		}
+		assertEquals(1, catalog.getDominantXp());
+
+		catalog.add(1000);
+		assertEquals(XpActionCatalog.MAX_ACTIONS, catalog.size());
+		final Map<Integer, Integer> counts = counts(catalog);
+		assertTrue(counts.containsKey(1));
+		assertTrue(counts.containsKey(1000));
+		assertEquals(1, catalog.getDominantXp());
+
+		// Entries moved by the rehash are still found
+		for (int xp : counts.keySet())
+		{
+			catalog.add(xp);
+		}
+		assertEquals(XpActionCatalog.MAX_ACTIONS, catalog.size());
+	}
+
+	@Test
+	public void testDecayDropsRareDrops()
+	{
+		final XpActionCatalog catalog = new XpActionCatalog();
+		catalog.add(7);
+		catalog.add(8);
+		for (int i = 0; i < XpActionCatalog.DECAY_TOTAL - 2; i++)
+		{
+			catalog.add(5);
+		}
+
+		final Map<Integer, Integer> counts = counts(catalog);
+		assertEquals(1, counts.size());
+		assertEquals((XpActionCatalog.DECAY_TOTAL - 2) / 2, (int) counts.get(5));
+		assertEquals(5, catalog.getDominantXp());
+	}
+
+	@Test
+	public void testDecayFollowsNewActivity()
+	{
+		final XpActionCatalog catalog = new XpActionCatalog();
+		for (int i = 0; i < 100; i++)
+		{
+			catalog.add(5);
+		}
+		for (int i = 0; i < XpActionCatalog.DECAY_TOTAL * 2; i++)
+		{
+			catalog.add(90);
+		}
+		assertEquals(90, catalog.getDominantXp());
+		assertFalse(counts(catalog).getOrDefault(5, 0) > counts(catalog).get(90));
+	}
+
+	@Test
+	public void testSaveRestore()
+	{
+		final XpActionCatalog catalog = new XpActionCatalog();
+		catalog.add(12);
+		catalog.add(40);
+		catalog.add(40);
+
+		final XpActionCatalog restored = new XpActionCatalog();
+		restored.restore(catalog.save());
+		assertEquals(counts(catalog), counts(restored));
+		assertEquals(40, restored.getDominantXp());
+
+		// Invalid pairs and a trailing key are skipped
+		restored.restore(new int[]{5, 3, -1, 4, 9, 0, 7, 9, 11});
+		assertEquals(2, restored.size());
+		assertEquals(7, restored.getDominantXp());
+
+		restored.restore(null);
+		assertEquals(0, restored.size());
+		assertEquals(0, restored.getDominantXp());
+	}
+}
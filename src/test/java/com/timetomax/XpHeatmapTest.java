@@ -0,0 +1,77 @@
+package com.timetomax;
+
+import java.time.LocalDateTime;
+import net.runelite.api.Skill;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.After;
+import org.junit.Test;
+
+public class XpHeatmapTest
+{
+	@After
+	public void after()
+	{
+		XpCalculator.clearTimeOffset();
+	}
+
+	@Test
+	public void testBinnedByHourOfWeek()
+	{
+		// Wednesday 14:30
+		XpCalculator.setOverrideTarget(LocalDateTime.of(2024, 5, 15, 14, 30));
+		final XpHeatmap heatmap = new XpHeatmap();
+		final int version = heatmap.getVersion();
+		heatmap.add(Skill.MINING, 100);
+		heatmap.add(Skill.MINING, 50);
+		assertNotEquals(version, heatmap.getVersion());
+
+		final int[][] bins = heatmap.copyBins();
+		assertEquals(150, bins[Skill.MINING.ordinal()][2 * 24 + 14]);
+		assertEquals(0, bins[Skill.ATTACK.ordinal()][2 * 24 + 14]);
+	}
+
+	@Test
+	public void testSaveRestoreRoundTrip()
+	{
+		XpCalculator.setOverrideTarget(LocalDateTime.of(2024, 5, 13, 0, 10));
+		final XpHeatmap heatmap = new XpHeatmap();
+		heatmap.add(Skill.MINING, 100);
+		heatmap.add(Skill.COOKING, 70);
+
+		final XpSave save = new XpSave();
+		heatmap.save(save);
+		assertArrayEquals(new int[]{0, 100}, save.heatmap.get(Skill.MINING));
+		assertNull(save.heatmap.get(Skill.ATTACK));
+
+		final XpHeatmap restored = new XpHeatmap();
+		restored.add(Skill.ATTACK, 10);
+		restored.restore(save);
+		final int[][] expected = heatmap.copyBins();
+		final int[][] actual = restored.copyBins();
+		for (Skill skill : Skill.values())
+		{
+			assertArrayEquals(expected[skill.ordinal()], actual[skill.ordinal()]);
+		}
+	}
+
+	@Test
+	public void testRestoreSkipsInvalidPairs()
+	{
+		final XpSave save = new XpSave();
+		save.heatmap.put(Skill.MINING, new int[]{-1, 5, XpHeatmap.HOURS, 5, 3, 0, 4, 9, 7});
+
+		final XpHeatmap heatmap = new XpHeatmap();
+		heatmap.restore(save);
+		final int[] bins = heatmap.copyBins()[Skill.MINING.ordinal()];
+		int total = 0;
+		for (int xp : bins)
+		{
+			total += xp;
+		}
+		assertEquals(9, total);
+		assertEquals(9, bins[4]);
+	}
+}
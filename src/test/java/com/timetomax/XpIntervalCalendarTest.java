@@ -0,0 +1,76 @@
+package com.timetomax;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class XpIntervalCalendarTest
+{
+	// Wednesday
+	private static final LocalDate WEDNESDAY = LocalDate.of(2024, 5, 15);
+	private static final LocalDate MONDAY = LocalDate.of(2024, 5, 13);
+	private static final LocalDate NEXT_MONDAY = LocalDate.of(2024, 5, 20);
+
+	@After
+	public void after()
+	{
+		XpCalculator.clearTimeOffset();
+	}
+
+	@Test
+	public void testPeriodStartOf()
+	{
+		assertEquals(MONDAY.toEpochDay(), XpIntervalCalendar.periodStartOf(TrackingInterval.WEEK, WEDNESDAY.toEpochDay()));
+		assertEquals(LocalDate.of(2024, 5, 1).toEpochDay(), XpIntervalCalendar.periodStartOf(TrackingInterval.MONTH, WEDNESDAY.toEpochDay()));
+		assertEquals(WEDNESDAY.toEpochDay(), XpIntervalCalendar.periodStartOf(TrackingInterval.DAY, WEDNESDAY.toEpochDay()));
+	}
+
+	@Test
+	public void testPeriodsRemaining()
+	{
+		final XpIntervalCalendar calendar = new XpIntervalCalendar(TrackingInterval.WEEK, WEDNESDAY.toEpochDay(), LocalDate.of(2024, 6, 10).toEpochDay());
+		assertEquals(4, calendar.getPeriodsRemaining(WEDNESDAY.toEpochDay(), LocalDate.of(2024, 6, 10).toEpochDay()));
+		assertEquals(7, calendar.getPeriodDays(WEDNESDAY.toEpochDay()));
+		assertEquals(NEXT_MONDAY.toEpochDay(), calendar.getNextPeriodStart(WEDNESDAY.toEpochDay()));
+	}
+
+	@Test
+	public void testCalendarNotReusedAfterRollover()
+	{
+		final long target = LocalDate.of(2030, 1, 1).toEpochDay();
+		final XpIntervalCalendar calendar = new XpIntervalCalendar(TrackingInterval.WEEK, WEDNESDAY.toEpochDay(), target);
+		assertTrue(calendar.covers(WEDNESDAY.toEpochDay(), target));
+		assertFalse(calendar.covers(NEXT_MONDAY.toEpochDay(), target));
+	}
+
+	@Test
+	public void testRolloverDetected()
+	{
+		XpCalculator.setOverrideTarget(WEDNESDAY.atTime(12, 0));
+		// Cache a calendar out to a distant target, like the panel does
+		XpCalculator.getCalendar(TrackingInterval.WEEK, LocalDate.of(2030, 1, 1).toEpochDay());
+		assertFalse(XpCalculator.shouldStartNewIntervalForDate(TrackingInterval.WEEK, MONDAY));
+
+		// Cross into the next week
+		XpCalculator.shiftTime(Duration.ofDays(5));
+		XpCalculator.getCalendar(TrackingInterval.WEEK, LocalDate.of(2030, 1, 1).toEpochDay());
+		assertTrue(XpCalculator.shouldStartNewIntervalForDate(TrackingInterval.WEEK, MONDAY));
+		assertFalse(XpCalculator.shouldStartNewIntervalForDate(TrackingInterval.WEEK, NEXT_MONDAY));
+		assertEquals(NEXT_MONDAY, XpCalculator.getCurrentPeriodStart(TrackingInterval.WEEK));
+	}
+
+	@Test
+	public void testDayRollover()
+	{
+		XpCalculator.setOverrideTarget(LocalDateTime.of(2024, 5, 15, 23, 59));
+		assertFalse(XpCalculator.shouldStartNewIntervalForDate(TrackingInterval.DAY, WEDNESDAY));
+		XpCalculator.shiftTime(Duration.ofMinutes(2));
+		assertTrue(XpCalculator.shouldStartNewIntervalForDate(TrackingInterval.DAY, WEDNESDAY));
+		assertEquals(WEDNESDAY.plusDays(1), XpCalculator.getCurrentPeriodStart(TrackingInterval.DAY));
+	}
+}
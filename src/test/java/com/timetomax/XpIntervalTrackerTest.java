@@ -0,0 +1,64 @@
+package com.timetomax;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class XpIntervalTrackerTest
+{
+	private static XpIntervalTracker tracker()
+	{
+		return new XpIntervalTracker(new long[TrackingInterval.values().length]);
+	}
+
+	@Test
+	public void testDeficitAppliedToFixedPace()
+	{
+		final XpIntervalTracker tracker = tracker();
+		assertEquals(1000, tracker.getCarryOverGoalXp(1000));
+
+		// 400 of 1000 gained, the recomputed goal already spreads part of the missed 600
+		tracker.settleCarryOver(400, 1);
+		assertEquals(-600, tracker.getCarryOverXp());
+		assertEquals(1600, tracker.getCarryOverGoalXp(1150));
+	}
+
+	@Test
+	public void testSurplusOverPeriods()
+	{
+		final XpIntervalTracker tracker = tracker();
+		tracker.getCarryOverGoalXp(1000);
+		tracker.settleCarryOver(2500, 2);
+		assertEquals(500, tracker.getCarryOverGoalXp(900));
+	}
+
+	@Test
+	public void testGoalChangeStartsCleanBalance()
+	{
+		final XpIntervalTracker tracker = tracker();
+		tracker.getCarryOverGoalXp(1000);
+		tracker.settleCarryOver(400, 1);
+
+		// Changing the goal settings recomputes the goal from the current xp, which includes the deficit
+		tracker.clearCarryOver();
+		assertEquals(1300, tracker.getCarryOverGoalXp(1300));
+		assertEquals(1300, tracker.getCarryOverGoalXp(1250));
+	}
+
+	@Test
+	public void testIdleDaysRecorded()
+	{
+		final XpIntervalTracker tracker = tracker();
+		tracker.update(100);
+		tracker.update(300);
+
+		final long[] periodStarts = new long[TrackingInterval.values().length];
+		periodStarts[TrackingInterval.DAY.ordinal()] = 3;
+		tracker.roll(periodStarts);
+
+		final int[] gains = tracker.getDailyGains();
+		assertEquals(3, gains.length);
+		assertEquals(200, gains[0]);
+		assertEquals(0, gains[1]);
+		assertEquals(0, gains[2]);
+	}
+}
@@ -0,0 +1,80 @@
+package com.timetomax;
+
+import java.util.List;
+import net.runelite.api.Skill;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class XpRecommenderTest
+{
+	private static void assertOrder(List<XpRecommendation> top, Skill... skills)
+	{
+		assertEquals(skills.length, top.size());
+		for (int i = 0; i < skills.length; i++)
+		{
+			assertEquals(skills[i], top.get(i).getSkill());
+		}
+	}
+
+	@Test
+	public void testMostBehindFirst()
+	{
+		final XpRecommender recommender = new XpRecommender();
+		recommender.update(Skill.ATTACK, 1000, 2);
+		recommender.update(Skill.MINING, 1000, 5);
+		recommender.update(Skill.COOKING, 1000, 0.5);
+		recommender.update(Skill.AGILITY, 1000, 3);
+
+		assertOrder(recommender.top(10), Skill.MINING, Skill.AGILITY, Skill.ATTACK, Skill.COOKING);
+		assertOrder(recommender.top(2), Skill.MINING, Skill.AGILITY);
+	}
+
+	@Test
+	public void testTopLeavesHeapIntact()
+	{
+		final XpRecommender recommender = new XpRecommender();
+		recommender.update(Skill.ATTACK, 1000, 2);
+		recommender.update(Skill.MINING, 1000, 5);
+		recommender.update(Skill.COOKING, 1000, 1);
+
+		recommender.top(3);
+		assertOrder(recommender.top(3), Skill.MINING, Skill.ATTACK, Skill.COOKING);
+
+		// Re-ranking after top() still finds every skill at its heap position
+		recommender.update(Skill.COOKING, 1000, 9);
+		assertOrder(recommender.top(3), Skill.COOKING, Skill.MINING, Skill.ATTACK);
+	}
+
+	@Test
+	public void testRemoveFromMiddle()
+	{
+		final XpRecommender recommender = new XpRecommender();
+		final Skill[] skills = {Skill.ATTACK, Skill.DEFENCE, Skill.STRENGTH, Skill.HITPOINTS, Skill.RANGED, Skill.PRAYER, Skill.MAGIC};
+		for (int i = 0; i < skills.length; i++)
+		{
+			recommender.update(skills[i], 1000, i + 1);
+		}
+
+		assertTrue(recommender.remove(Skill.HITPOINTS));
+		assertFalse(recommender.remove(Skill.HITPOINTS));
+		assertOrder(recommender.top(10), Skill.MAGIC, Skill.PRAYER, Skill.RANGED, Skill.STRENGTH, Skill.DEFENCE, Skill.ATTACK);
+
+		// The skill moved into the removed slot is still tracked at its new position
+		recommender.update(Skill.ATTACK, 1000, 20);
+		assertTrue(recommender.remove(Skill.PRAYER));
+		assertOrder(recommender.top(10), Skill.ATTACK, Skill.MAGIC, Skill.RANGED, Skill.STRENGTH, Skill.DEFENCE);
+	}
+
+	@Test
+	public void testUnshownChangeDoesNotReRank()
+	{
+		final XpRecommender recommender = new XpRecommender();
+		assertTrue(recommender.update(Skill.ATTACK, 1000, 2.0));
+		assertFalse(recommender.update(Skill.ATTACK, 1000, 2.01));
+		assertTrue(recommender.update(Skill.ATTACK, 1000, 2.2));
+		assertTrue(recommender.update(Skill.ATTACK, 900, 2.2));
+		assertEquals(2.2, recommender.top(1).get(0).getHoursNeeded(), 0);
+	}
+}
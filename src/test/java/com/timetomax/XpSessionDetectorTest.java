@@ -0,0 +1,109 @@
+package com.timetomax;
+
+import java.util.List;
+import net.runelite.api.Skill;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class XpSessionDetectorTest
+{
+	private static final long START = 1_700_000_000_000L;
+	private static final long MINUTE = 60 * 1000;
+	private static final long GAP = 15 * MINUTE;
+
+	@Test
+	public void testGapEndsSession()
+	{
+		final XpSessionDetector detector = new XpSessionDetector();
+		detector.drop(Skill.MINING, 100, START, GAP);
+		detector.drop(Skill.MINING, 100, START + MINUTE, GAP);
+		detector.drop(Skill.SMITHING, 50, START + 2 * MINUTE, GAP);
+
+		assertFalse(detector.tick(START + 2 * MINUTE + GAP, GAP));
+		assertNull(detector.getLastSession());
+		assertTrue(detector.tick(START + 2 * MINUTE + GAP + 1, GAP));
+
+		final XpSession session = detector.getLastSession();
+		assertEquals(START, session.getStartMillis());
+		assertEquals(START + 2 * MINUTE, session.getEndMillis());
+		assertEquals(2 * MINUTE, session.getActiveMillis());
+		assertEquals(200, session.getXp(Skill.MINING));
+		assertEquals(250, session.getTotalXp());
+	}
+
+	@Test
+	public void testIdleTimeNotActive()
+	{
+		final XpSessionDetector detector = new XpSessionDetector();
+		detector.drop(Skill.MINING, 100, START, GAP);
+		// Within the gap but longer than the game's idle logout, so not active time
+		detector.drop(Skill.MINING, 100, START + 10 * MINUTE, GAP);
+		detector.drop(Skill.MINING, 100, START + 11 * MINUTE, GAP);
+		assertTrue(detector.end());
+		assertFalse(detector.end());
+
+		final XpSession session = detector.getLastSession();
+		assertEquals(MINUTE, session.getActiveMillis());
+		assertEquals(11 * MINUTE, session.getEndMillis() - session.getStartMillis());
+	}
+
+	@Test
+	public void testDropAfterGapStartsNewSession()
+	{
+		final XpSessionDetector detector = new XpSessionDetector();
+		detector.drop(Skill.MINING, 100, START, GAP);
+		detector.drop(Skill.COOKING, 30, START + GAP + MINUTE, GAP);
+		detector.end();
+
+		final List<XpSession> sessions = detector.getSessions();
+		assertEquals(2, sessions.size());
+		assertEquals(100, sessions.get(0).getTotalXp());
+		assertEquals(30, sessions.get(1).getTotalXp());
+		assertEquals(0, sessions.get(1).getActiveMillis());
+	}
+
+	@Test
+	public void testRingKeepsNewest()
+	{
+		final XpSessionDetector detector = new XpSessionDetector();
+		for (int i = 0; i < XpSessionDetector.MAX_SESSIONS + 3; i++)
+		{
+			detector.drop(Skill.MINING, i + 1, START + i * GAP * 2, GAP);
+			detector.end();
+		}
+
+		final List<XpSession> sessions = detector.getSessions();
+		assertEquals(XpSessionDetector.MAX_SESSIONS, sessions.size());
+		assertEquals(4, sessions.get(0).getTotalXp());
+		assertEquals(XpSessionDetector.MAX_SESSIONS + 3, detector.getLastSession().getTotalXp());
+	}
+
+	@Test
+	public void testSaveRestoreKeepsOpenSession()
+	{
+		final XpSessionDetector detector = new XpSessionDetector();
+		detector.drop(Skill.MINING, 100, START, GAP);
+		detector.end();
+		detector.drop(Skill.COOKING, 40, START + GAP * 2, GAP);
+		detector.drop(Skill.COOKING, 40, START + GAP * 2 + MINUTE, GAP);
+
+		final XpSave save = new XpSave();
+		detector.save(save);
+		final XpSessionDetector restored = new XpSessionDetector();
+		restored.restore(save);
+
+		assertEquals(1, restored.getSessions().size());
+		assertEquals(100, restored.getLastSession().getXp(Skill.MINING));
+
+		// The restored session carries on within the gap
+		restored.drop(Skill.COOKING, 20, START + GAP * 2 + 2 * MINUTE, GAP);
+		restored.end();
+		final XpSession open = restored.getLastSession();
+		assertEquals(START + GAP * 2, open.getStartMillis());
+		assertEquals(100, open.getXp(Skill.COOKING));
+		assertEquals(2 * MINUTE, open.getActiveMillis());
+	}
+}